@@ -1,9 +1,83 @@
 package com.ytuce.wordlearningapp.configuration;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Named executors: virtual threads for work that mostly waits on Ollama / python-service / Postgres,
+ * and a bounded platform pool for CPU-bound work. The I/O executor is also the default for @Async.
+ */
 @Configuration
-//@EnableAsync
+@EnableAsync
 public class AsyncConfig {
-}
\ No newline at end of file
+
+    public static final String IO_EXECUTOR = "ioTaskExecutor";
+    public static final String CPU_EXECUTOR = "cpuTaskExecutor";
+    public static final String SYNONYM_EXECUTOR = "synonymExpansionExecutor";
+
+    @Value("${async.io.max-concurrency:256}")
+    private int ioMaxConcurrency;
+
+    @Value("${async.io.queue-capacity:1000}")
+    private int ioQueueCapacity;
+
+    @Value("${async.synonym.max-concurrency:64}")
+    private int synonymMaxConcurrency;
+
+    @Value("${async.synonym.queue-capacity:2000}")
+    private int synonymQueueCapacity;
+
+    // 0 = number of available processors
+    @Value("${async.cpu.pool-size:0}")
+    private int cpuPoolSize;
+
+    @Value("${async.cpu.queue-capacity:500}")
+    private int cpuQueueCapacity;
+
+    @Bean
+    public TaskDecorator contextPropagatingTaskDecorator() {
+        return new MdcSecurityContextTaskDecorator();
+    }
+
+    // Also registered as "taskExecutor" so plain @Async methods run here
+    @Bean(name = {IO_EXECUTOR, "taskExecutor"})
+    public VirtualThreadTaskExecutor ioTaskExecutor(TaskDecorator taskDecorator, MeterRegistry meterRegistry) {
+        return new VirtualThreadTaskExecutor("io", ioMaxConcurrency, ioQueueCapacity, taskDecorator, meterRegistry);
+    }
+
+    @Bean(name = SYNONYM_EXECUTOR)
+    public VirtualThreadTaskExecutor synonymExpansionExecutor(TaskDecorator taskDecorator, MeterRegistry meterRegistry) {
+        return new VirtualThreadTaskExecutor("synonym", synonymMaxConcurrency, synonymQueueCapacity, taskDecorator, meterRegistry);
+    }
+
+    @Bean(name = CPU_EXECUTOR)
+    public ThreadPoolTaskExecutor cpuTaskExecutor(TaskDecorator taskDecorator, MeterRegistry meterRegistry) {
+        int poolSize = cpuPoolSize > 0 ? cpuPoolSize : Runtime.getRuntime().availableProcessors();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(cpuQueueCapacity);
+        executor.setThreadNamePrefix("cpu-");
+        executor.setTaskDecorator(taskDecorator);
+
+        Counter rejected = Counter.builder("async.executor.rejected").tag("name", "cpu").register(meterRegistry);
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            throw new RejectedExecutionException("Executor 'cpu' is saturated");
+        });
+
+        Gauge.builder("async.executor.active", executor, ThreadPoolTaskExecutor::getActiveCount).tag("name", "cpu").register(meterRegistry);
+        Gauge.builder("async.executor.queued", executor, ThreadPoolTaskExecutor::getQueueSize).tag("name", "cpu").register(meterRegistry);
+        return executor;
+    }
+}
@@ -0,0 +1,123 @@
+package com.ytuce.wordlearningapp.configuration;
+
+import java.time.Duration;
+
+/**
+ * Count-based circuit breaker. Opens when the failure rate over the last window-size calls
+ * reaches the threshold, rejects calls for open-duration, then lets half-open-calls trial calls
+ * through: all of them succeeding closes the breaker, any failure opens it again.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final boolean[] window;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    private State state = State.CLOSED;
+    private int index;
+    private int recorded;
+    private int failures;
+    private long openedAt;
+    private int halfOpenInFlight;
+    private int halfOpenSucceeded;
+    private long transitions;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                          Duration openDuration, int halfOpenCalls) {
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) return false;
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenInFlight + halfOpenSucceeded >= halfOpenCalls) return false;
+            halfOpenInFlight++;
+        }
+        return true;
+    }
+
+    // Permission was granted but the call never happened or its result says nothing about the upstream
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && halfOpenInFlight > 0) halfOpenInFlight--;
+    }
+
+    public synchronized void onSuccess() {
+        switch (state) {
+            case CLOSED -> record(false);
+            case HALF_OPEN -> {
+                if (halfOpenInFlight > 0) halfOpenInFlight--;
+                if (++halfOpenSucceeded >= halfOpenCalls) transitionTo(State.CLOSED);
+            }
+            case OPEN -> {
+            }
+        }
+    }
+
+    public synchronized void onFailure() {
+        switch (state) {
+            case CLOSED -> {
+                record(true);
+                if (recorded >= minimumCalls && (double) failures / recorded >= failureRateThreshold) {
+                    transitionTo(State.OPEN);
+                }
+            }
+            case HALF_OPEN -> transitionTo(State.OPEN);
+            case OPEN -> {
+            }
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    // True unless open and still cooling down; does not consume a trial call
+    public synchronized boolean isAcceptingCalls() {
+        return state != State.OPEN || System.nanoTime() - openedAt >= openNanos;
+    }
+
+    public synchronized Duration remainingOpenTime() {
+        if (state != State.OPEN) return Duration.ZERO;
+        return Duration.ofNanos(Math.max(0, openNanos - (System.nanoTime() - openedAt)));
+    }
+
+    public synchronized long getTransitions() {
+        return transitions;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == window.length) {
+            if (window[index]) failures--;
+        } else {
+            recorded++;
+        }
+        window[index] = failure;
+        if (failure) failures++;
+        index = (index + 1) % window.length;
+    }
+
+    private void transitionTo(State next) {
+        state = next;
+        transitions++;
+        halfOpenInFlight = 0;
+        halfOpenSucceeded = 0;
+        if (next == State.OPEN) {
+            openedAt = System.nanoTime();
+        } else if (next == State.CLOSED) {
+            index = 0;
+            recorded = 0;
+            failures = 0;
+        }
+    }
+}
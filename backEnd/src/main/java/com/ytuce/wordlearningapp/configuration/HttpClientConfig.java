@@ -0,0 +1,134 @@
+package com.ytuce.wordlearningapp.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * One pooled client per upstream so a slow Ollama cannot exhaust the connections
+ * or threads used for python-service calls, and vice versa.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    public static final String PYTHON_SERVICE = "pythonServiceUpstream";
+    public static final String OLLAMA = "ollamaUpstream";
+
+    @Value("${external.python-service.url:http://localhost:8000}")
+    private String pythonServiceUrl;
+
+    @Value("${http-clients.python-service.max-connections:32}")
+    private int pythonMaxConnections;
+
+    @Value("${http-clients.python-service.max-concurrent:32}")
+    private int pythonMaxConcurrent;
+
+    @Value("${http-clients.python-service.connect-timeout:2s}")
+    private Duration pythonConnectTimeout;
+
+    @Value("${http-clients.python-service.read-timeout:30s}")
+    private Duration pythonReadTimeout;
+
+    @Value("${http-clients.python-service.acquire-timeout:2s}")
+    private Duration pythonAcquireTimeout;
+
+    @Value("${http-clients.python-service.latency-threshold:2s}")
+    private Duration pythonLatencyThreshold;
+
+    @Value("${external.ollama.url:http://localhost:11434}")
+    private String ollamaUrl;
+
+    @Value("${http-clients.ollama.max-connections:8}")
+    private int ollamaMaxConnections;
+
+    @Value("${http-clients.ollama.max-concurrent:4}")
+    private int ollamaMaxConcurrent;
+
+    @Value("${http-clients.ollama.connect-timeout:2s}")
+    private Duration ollamaConnectTimeout;
+
+    @Value("${http-clients.ollama.read-timeout:120s}")
+    private Duration ollamaReadTimeout;
+
+    @Value("${http-clients.ollama.acquire-timeout:15s}")
+    private Duration ollamaAcquireTimeout;
+
+    @Value("${http-clients.ollama.latency-threshold:30s}")
+    private Duration ollamaLatencyThreshold;
+
+    @Value("${http-clients.circuit-breaker.window-size:20}")
+    private int breakerWindowSize;
+
+    @Value("${http-clients.circuit-breaker.minimum-calls:10}")
+    private int breakerMinimumCalls;
+
+    @Value("${http-clients.circuit-breaker.failure-rate-threshold:0.5}")
+    private double breakerFailureRateThreshold;
+
+    @Value("${http-clients.circuit-breaker.open-duration:30s}")
+    private Duration breakerOpenDuration;
+
+    @Value("${http-clients.circuit-breaker.half-open-calls:2}")
+    private int breakerHalfOpenCalls;
+
+    // Multiplier applied to the concurrency limit after a slow or failed call
+    @Value("${http-clients.concurrency-limit.backoff-ratio:0.9}")
+    private double limitBackoffRatio;
+
+    @Bean(name = PYTHON_SERVICE)
+    public UpstreamClient pythonServiceUpstream(MeterRegistry meterRegistry) {
+        return new UpstreamClient("python-service", pythonServiceUrl,
+                pooledClient(pythonMaxConnections, pythonConnectTimeout, pythonReadTimeout, pythonAcquireTimeout),
+                pythonConnectTimeout, pythonReadTimeout, circuitBreaker(),
+                new AdaptiveConcurrencyLimit(1, pythonMaxConcurrent, pythonLatencyThreshold, limitBackoffRatio),
+                pythonAcquireTimeout, meterRegistry);
+    }
+
+    @Bean(name = OLLAMA)
+    public UpstreamClient ollamaUpstream(MeterRegistry meterRegistry) {
+        return new UpstreamClient("ollama", ollamaUrl,
+                pooledClient(ollamaMaxConnections, ollamaConnectTimeout, ollamaReadTimeout, ollamaAcquireTimeout),
+                ollamaConnectTimeout, ollamaReadTimeout, circuitBreaker(),
+                new AdaptiveConcurrencyLimit(1, ollamaMaxConcurrent, ollamaLatencyThreshold, limitBackoffRatio),
+                ollamaAcquireTimeout, meterRegistry);
+    }
+
+    private CircuitBreaker circuitBreaker() {
+        return new CircuitBreaker(breakerWindowSize, breakerMinimumCalls, breakerFailureRateThreshold,
+                breakerOpenDuration, breakerHalfOpenCalls);
+    }
+
+    private static CloseableHttpClient pooledClient(int maxConnections, Duration connectTimeout,
+                                                    Duration readTimeout, Duration acquireTimeout) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                        .setTimeToLive(TimeValue.ofMinutes(5))
+                        .build())
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(acquireTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .build();
+    }
+}
@@ -0,0 +1,73 @@
+package com.ytuce.wordlearningapp.configuration;
+
+import com.pgvector.PGvector;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Registers the pgvector type on every physical connection so pgjdbc moves PGvector
+ * parameters and results in pgvector's binary format instead of text.
+ */
+@Configuration
+public class PgVectorConfig {
+
+    @Bean
+    public static BeanPostProcessor pgVectorDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof VectorTypeRegisteringDataSource)) {
+                    return new VectorTypeRegisteringDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    static class VectorTypeRegisteringDataSource extends DelegatingDataSource {
+
+        // Pooled connections are reused, so each physical connection only needs registering once
+        private final Set<PGConnection> registered = Collections.synchronizedSet(
+                Collections.newSetFromMap(new WeakHashMap<>()));
+
+        VectorTypeRegisteringDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return register(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return register(super.getConnection(username, password));
+        }
+
+        private Connection register(Connection connection) throws SQLException {
+            if (!connection.isWrapperFor(PGConnection.class)) {
+                return connection;
+            }
+            PGConnection pgConnection = connection.unwrap(PGConnection.class);
+            if (registered.add(pgConnection)) {
+                try {
+                    PGvector.addVectorType(connection);
+                } catch (SQLException e) {
+                    registered.remove(pgConnection);
+                    throw e;
+                }
+            }
+            return connection;
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package com.ytuce.wordlearningapp.configuration;
+
+import com.ytuce.wordlearningapp.models.MeaningEmbedding;
+import com.ytuce.wordlearningapp.models.Word;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Schema changes that ddl-auto=update cannot express. Runs after Hibernate has updated the
+ * tables (hence the dependency on entityManagerFactory) and before the web server accepts requests.
+ * Vector indexes are the exception: they can take minutes on a large table, so they are built
+ * concurrently in the background once the application is up. Every step is idempotent.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class SchemaInitializer {
+
+    private static final String VECTOR_INDEX = "meaning_embedding_embedding_idx";
+    private static final String BITS_INDEX = "meaning_embedding_bits_idx";
+    private static final String WORD_WRITING_INDEX = "uk_word_normalized_writing";
+    private static final String WORD_MEANING_INDEX = "uk_word_with_meaning_word_meaning_pos";
+    private static final String WORD_MASTERY_INDEX = "uk_word_mastery_user_word";
+    private static final String LIST_WORD_INDEX = "idx_word_list_word_meanings_list_word";
+
+    // Tables whose ids come from a <table>_seq sequence (pooled, allocationSize 50) and their id column
+    private static final Map<String, String> SEQUENCE_ID_COLUMNS = Map.of(
+            "word", "word_id",
+            "meaning", "meaning_id",
+            "example_sentence", "example_sentence_id",
+            "word_with_meaning", "word_with_meaning_id",
+            "question", "question_id",
+            "answer", "answer_id");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // hnsw | ivfflat | none
+    @Value("${meaning-extractor.vector-search.index:hnsw}")
+    private String indexType;
+
+    @Value("${meaning-extractor.vector-search.mode:approximate}")
+    private String searchMode;
+
+    @Value("${meaning-extractor.vector-search.hnsw.m:16}")
+    private int hnswM;
+
+    @Value("${meaning-extractor.vector-search.hnsw.ef-construction:64}")
+    private int hnswEfConstruction;
+
+    @Value("${meaning-extractor.vector-search.ivfflat.lists:100}")
+    private int ivfflatLists;
+
+    // Off by default: an instance still running the old code keeps writing to meaning.embedding
+    @Value("${schema.drop-legacy-embedding-column:false}")
+    private boolean dropLegacyEmbeddingColumn;
+
+    @PostConstruct
+    public void init() {
+        alignIdSequences();
+        backfillNormalizedWritings();
+        ensureUniqueWords();
+        ensureWordMastery();
+        moveMeaningEmbeddings();
+        fixEmbeddingDimension();
+    }
+
+    // Until the index is ready, neighbour queries scan the table; they are slower but correct
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildVectorIndexesInBackground() {
+        Thread.ofPlatform().daemon().name("vector-index-build").start(() -> {
+            try {
+                ensureVectorIndexes();
+            } catch (RuntimeException e) {
+                log.warn("Vector indexes could not be built: {}", e.getMessage());
+            }
+        });
+    }
+
+    // These tables used IDENTITY columns before, so their sequences start below rows that already exist.
+    // The pooled optimizer hands out (nextval - 49 .. nextval], so moving last_value to max(id) is enough.
+    private void alignIdSequences() {
+        SEQUENCE_ID_COLUMNS.forEach((table, idColumn) -> {
+            String sequence = table + "_seq";
+            Long maxId = jdbcTemplate.queryForObject("SELECT coalesce(max(" + idColumn + "), 0) FROM " + table, Long.class);
+            Long lastValue = jdbcTemplate.queryForObject("SELECT last_value FROM " + sequence, Long.class);
+            if (maxId != null && lastValue != null && lastValue < maxId) {
+                jdbcTemplate.queryForObject("SELECT setval(?, ?)", Long.class, sequence, maxId);
+                log.info("Moved sequence {} from {} to {}", sequence, lastValue, maxId);
+            }
+        });
+    }
+
+    // Rows from before the column existed; Word.normalize has no SQL equivalent, so this goes through Java
+    private void backfillNormalizedWritings() {
+        List<Object[]> rows = jdbcTemplate.query(
+                "SELECT word_id, writing FROM word WHERE normalized_writing IS NULL AND writing IS NOT NULL",
+                (rs, i) -> new Object[]{Word.normalize(rs.getString("writing")), rs.getLong("word_id")});
+        if (rows.isEmpty()) return;
+
+        jdbcTemplate.batchUpdate("UPDATE word SET normalized_writing = ? WHERE word_id = ?", rows);
+        log.info("Filled in normalized_writing for {} words", rows.size());
+    }
+
+    // The upserts in WordRepository and WordWithMeaningRepository rely on these unique indexes. Rows written
+    // before they existed may hold duplicates, which are merged into the lowest id first.
+    private void ensureUniqueWords() {
+        if (indexExists(WORD_WRITING_INDEX) && indexExists(WORD_MEANING_INDEX)) return;
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("LOCK TABLE word, word_with_meaning IN SHARE ROW EXCLUSIVE MODE");
+
+            int words = mergeDuplicates("word", "word_id", "normalized_writing",
+                    Map.of("word_with_meaning", "word_id", "answer_word", "word_id", "user_answer_word", "word_id"));
+            // A merged word can leave two identical pairs behind, so words go first
+            jdbcTemplate.execute("""
+                    CREATE TEMP TABLE duplicate_sentence ON COMMIT DROP AS
+                    SELECT example_sentence_id FROM (
+                        SELECT example_sentence_id, row_number() OVER (
+                            PARTITION BY word_id, meaning_id, part_of_speech ORDER BY word_with_meaning_id) AS rank
+                        FROM word_with_meaning) ranked
+                    WHERE rank > 1 AND example_sentence_id IS NOT NULL
+                    """);
+            int pairs = mergeDuplicates("word_with_meaning", "word_with_meaning_id", "word_id, meaning_id, part_of_speech",
+                    Map.of("question_options", "word_with_meaning_id", "word_list_word_meanings", "word_with_meaning_id",
+                            "question", "target_word_with_meaning_id"));
+            jdbcTemplate.update("DELETE FROM example_sentence WHERE example_sentence_id IN (SELECT example_sentence_id FROM duplicate_sentence)");
+
+            jdbcTemplate.execute("DROP INDEX IF EXISTS idx_word_writing");
+            jdbcTemplate.execute("DROP INDEX IF EXISTS uk_word_writing");
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + WORD_WRITING_INDEX + " ON word (normalized_writing)");
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + WORD_MEANING_INDEX
+                    + " ON word_with_meaning (word_id, meaning_id, part_of_speech) NULLS NOT DISTINCT");
+            log.info("Created unique indexes on word and word_with_meaning after merging {} duplicate words and {} duplicate pairs",
+                    words, pairs);
+        });
+    }
+
+    // Unique index for the upsert in WordMasteryRepository, and one on the list join table for its list-membership
+    // probes and unseen-word scan; an empty table is filled from the answer history.
+    // Scores go to the owner of the quiz's word list, as the old history replay in QuizService did, but only
+    // for options that are in that list.
+    private void ensureWordMastery() {
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + WORD_MASTERY_INDEX
+                + " ON word_mastery (user_id, word_with_meaning_id)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + LIST_WORD_INDEX
+                + " ON word_list_word_meanings (word_list_id, word_with_meaning_id)");
+
+        // Rows from before scheduling existed are all due now, lowest score first
+        int unscheduled = jdbcTemplate.update("""
+                UPDATE word_mastery SET ease_factor = 2.5, interval_days = 0, repetitions = 0,
+                       due_at = now() + make_interval(secs => score)
+                WHERE due_at IS NULL
+                """);
+        if (unscheduled > 0) {
+            log.info("Scheduled {} word mastery rows for review", unscheduled);
+        }
+
+        // Answers used to reschedule every option of a question, distractors included. Rows for words in none of
+        // the user's lists are never quizzed, but stay due and slow down the due-word scan in WordMasteryRepository.
+        int orphaned = jdbcTemplate.update("""
+                DELETE FROM word_mastery m
+                WHERE NOT EXISTS (
+                    SELECT 1 FROM word_list wl
+                    JOIN word_list_word_meanings l ON l.word_list_id = wl.word_list_id
+                    WHERE wl.user_id = m.user_id AND l.word_with_meaning_id = m.word_with_meaning_id
+                )
+                """);
+        if (orphaned > 0) {
+            log.info("Removed {} word mastery rows for words in none of their user's lists", orphaned);
+        }
+
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM word_mastery)", Boolean.class))) return;
+
+        long start = System.nanoTime();
+        int rows = jdbcTemplate.update("""
+                INSERT INTO word_mastery (user_id, word_with_meaning_id, score, correct_count, wrong_count,
+                                          ease_factor, interval_days, repetitions, due_at)
+                SELECT wl.user_id, o.word_with_meaning_id,
+                       sum(CASE WHEN ua.is_correct THEN 1 ELSE -2 END),
+                       count(*) FILTER (WHERE ua.is_correct),
+                       count(*) FILTER (WHERE NOT ua.is_correct),
+                       2.5, 0, 0, now() + make_interval(secs => sum(CASE WHEN ua.is_correct THEN 1 ELSE -2 END)::int)
+                FROM user_answer ua
+                JOIN question q ON q.question_id = ua.question_id
+                JOIN quiz z ON z.quiz_id = q.quiz_id
+                JOIN word_list wl ON wl.word_list_id = z.word_list_id
+                JOIN question_options o ON o.question_id = q.question_id
+                JOIN word_list_word_meanings l ON l.word_list_id = wl.word_list_id
+                                              AND l.word_with_meaning_id = o.word_with_meaning_id
+                WHERE wl.user_id IS NOT NULL AND o.word_with_meaning_id IS NOT NULL
+                GROUP BY wl.user_id, o.word_with_meaning_id
+                ON CONFLICT (user_id, word_with_meaning_id) DO NOTHING
+                """);
+        if (rows > 0) {
+            log.info("Backfilled {} word mastery rows from answer history in {} ms", rows, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    // Points every reference to a duplicate (same key columns) at the row with the lowest id, then deletes the duplicates.
+    // The join tables have no primary key, so rows that became identical are collapsed as well.
+    private int mergeDuplicates(String table, String idColumn, String keyColumns, Map<String, String> references) {
+        jdbcTemplate.execute("CREATE TEMP TABLE " + table + "_merge ON COMMIT DROP AS "
+                + "SELECT duplicate_id, keeper_id FROM ("
+                + "SELECT " + idColumn + " AS duplicate_id, min(" + idColumn + ") OVER (PARTITION BY " + keyColumns + ") AS keeper_id "
+                + "FROM " + table + ") ids WHERE duplicate_id <> keeper_id");
+
+        references.forEach((referencing, column) -> {
+            jdbcTemplate.update("UPDATE " + referencing + " r SET " + column + " = m.keeper_id FROM " + table + "_merge m "
+                    + "WHERE r." + column + " = m.duplicate_id");
+            jdbcTemplate.update("DELETE FROM " + referencing + " a USING " + referencing + " b "
+                    + "WHERE a.ctid > b.ctid AND a IS NOT DISTINCT FROM b "
+                    + "AND a." + column + " IN (SELECT keeper_id FROM " + table + "_merge)");
+        });
+        return jdbcTemplate.update("DELETE FROM " + table + " WHERE " + idColumn + " IN (SELECT duplicate_id FROM " + table + "_merge)");
+    }
+
+    // Embeddings used to live on meaning itself; copy them over to meaning_embedding on every start.
+    // The old column is only dropped when asked to and once every embedding in it has a copy.
+    private void moveMeaningEmbeddings() {
+        if (!columnExists("meaning", "embedding")) return;
+
+        transactionTemplate.executeWithoutResult(status -> {
+            int moved = jdbcTemplate.update("""
+                    INSERT INTO meaning_embedding (meaning_id, embedding)
+                    SELECT meaning_id, embedding FROM meaning WHERE embedding IS NOT NULL
+                    ON CONFLICT (meaning_id) DO NOTHING
+                    """);
+            if (moved > 0) {
+                log.info("Copied {} embeddings from meaning to meaning_embedding", moved);
+            }
+            if (!dropLegacyEmbeddingColumn) return;
+
+            // Same transaction as the copy; the lock keeps old instances from adding rows in between
+            jdbcTemplate.execute("LOCK TABLE meaning IN SHARE MODE");
+            Long missing = jdbcTemplate.queryForObject("""
+                    SELECT count(*) FROM meaning m
+                    WHERE m.embedding IS NOT NULL
+                      AND NOT EXISTS (SELECT 1 FROM meaning_embedding e WHERE e.meaning_id = m.meaning_id)
+                    """, Long.class);
+            if (missing == null || missing > 0) {
+                log.warn("Keeping meaning.embedding: {} embeddings have no copy in meaning_embedding", missing);
+                return;
+            }
+            jdbcTemplate.execute("ALTER TABLE meaning DROP COLUMN embedding");
+            log.info("Dropped meaning.embedding, every embedding has a copy in meaning_embedding");
+        });
+    }
+
+    // Tables created before the column had a dimension hold a plain vector, which cannot be indexed
+    private void fixEmbeddingDimension() {
+        String expected = "vector(" + MeaningEmbedding.DIMENSIONS + ")";
+        String actual = jdbcTemplate.queryForObject("""
+                SELECT format_type(atttypid, atttypmod) FROM pg_attribute
+                WHERE attrelid = 'meaning_embedding'::regclass AND attname = 'embedding'
+                """, String.class);
+        if (expected.equals(actual)) return;
+
+        jdbcTemplate.execute("ALTER TABLE meaning_embedding ALTER COLUMN embedding TYPE " + expected);
+        log.info("Changed meaning_embedding.embedding from {} to {}", actual, expected);
+    }
+
+    // Creates the configured cosine index and, in binary search mode, a Hamming index over the sign bits.
+    // CREATE INDEX CONCURRENTLY cannot run in a transaction, so this uses one autocommit connection,
+    // which also holds the advisory lock that keeps two starting instances from building at once.
+    private void ensureVectorIndexes() {
+        String method = indexType.toLowerCase(Locale.ROOT);
+        String options = switch (method) {
+            case "hnsw" -> "m=" + hnswM + ",ef_construction=" + hnswEfConstruction;
+            case "ivfflat" -> "lists=" + ivfflatLists;
+            case "none" -> null;
+            default -> throw new IllegalStateException("Unknown vector index type: " + indexType);
+        };
+        boolean binary = searchMode.equalsIgnoreCase("binary") && !method.equals("none");
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            JdbcTemplate jdbc = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            if (!Boolean.TRUE.equals(jdbc.queryForObject("SELECT pg_try_advisory_lock(hashtext(?))", Boolean.class, VECTOR_INDEX))) {
+                log.info("Another instance is building the vector indexes");
+                return null;
+            }
+            try {
+                ensureIndex(jdbc, VECTOR_INDEX, options == null ? null : method, options, "embedding vector_cosine_ops");
+                ensureIndex(jdbc, BITS_INDEX, binary ? "hnsw" : null, "m=" + hnswM + ",ef_construction=" + hnswEfConstruction,
+                        "(binary_quantize(embedding)::bit(" + MeaningEmbedding.DIMENSIONS + ")) bit_hamming_ops");
+            } finally {
+                jdbc.queryForObject("SELECT pg_advisory_unlock(hashtext(?))", Boolean.class, VECTOR_INDEX);
+            }
+            return null;
+        });
+    }
+
+    // Drops the index when method is null; rebuilds it when the access method or its parameters changed or an
+    // earlier concurrent build left it invalid. A rebuild creates the new index next to the old one, so searches
+    // keep an index until the swap, and writes are never blocked.
+    private void ensureIndex(JdbcTemplate jdbc, String name, String method, String options, String columns) {
+        // e.g. "hnsw {m=16,ef_construction=64}"
+        String existing = jdbc.query("""
+                SELECT am.amname || ' ' || coalesce(c.reloptions::text, '{}') || CASE WHEN i.indisvalid THEN '' ELSE ' invalid' END
+                FROM pg_class c JOIN pg_am am ON am.oid = c.relam JOIN pg_index i ON i.indexrelid = c.oid
+                WHERE c.oid = to_regclass(?)
+                """, rs -> rs.next() ? rs.getString(1) : null, name);
+        String wanted = method == null ? null : method + " {" + options + "}";
+        if (wanted == null ? existing == null : wanted.equals(existing)) return;
+
+        if (wanted == null) {
+            jdbc.execute("DROP INDEX CONCURRENTLY " + name);
+            log.info("Dropped vector index {} ({})", name, existing);
+            return;
+        }
+
+        String building = name + "_new";
+        long start = System.nanoTime();
+        // Left over from a build that was interrupted
+        jdbc.execute("DROP INDEX CONCURRENTLY IF EXISTS " + building);
+        jdbc.execute("CREATE INDEX CONCURRENTLY " + building + " ON meaning_embedding USING " + method
+                + " (" + columns + ") WITH (" + options.replace(",", ", ") + ")");
+        if (existing != null) {
+            jdbc.execute("DROP INDEX CONCURRENTLY " + name);
+            log.info("Dropped vector index {} ({})", name, existing);
+        }
+        jdbc.execute("ALTER INDEX " + building + " RENAME TO " + name);
+        log.info("Built vector index {} ({}) in {} ms", name, wanted, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private boolean indexExists(String name) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name));
+    }
+
+    private boolean columnExists(String table, String column) {
+        Integer count = jdbcTemplate.queryForObject("""
+                SELECT count(*) FROM information_schema.columns
+                WHERE table_schema = current_schema() AND table_name = ? AND column_name = ?
+                """, Integer.class, table, column);
+        return count != null && count > 0;
+    }
+}
@@ -0,0 +1,194 @@
+package com.ytuce.wordlearningapp.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Outbound client for one upstream service: a pooled keep-alive connection manager with
+ * connect/read timeouts, a circuit breaker, an adaptive concurrency limit, and a latency
+ * histogram per endpoint. Calls that cannot get a slot are shed with UpstreamUnavailableException.
+ */
+@Slf4j
+public class UpstreamClient implements DisposableBean {
+
+    private static final String METRIC_PREFIX = "outbound.http";
+
+    @Getter
+    private final String name;
+    @Getter
+    private final String baseUrl;
+    @Getter
+    private final Duration connectTimeout;
+    @Getter
+    private final Duration readTimeout;
+
+    private final CloseableHttpClient httpClient;
+    private final RestTemplate restTemplate;
+    private final CircuitBreaker circuitBreaker;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final Duration acquireTimeout;
+    private final MeterRegistry meterRegistry;
+    private final Counter rejectedOpen;
+    private final Counter rejectedLimit;
+
+    public UpstreamClient(String name, String baseUrl, CloseableHttpClient httpClient,
+                          Duration connectTimeout, Duration readTimeout,
+                          CircuitBreaker circuitBreaker, AdaptiveConcurrencyLimit concurrencyLimit,
+                          Duration acquireTimeout, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.baseUrl = baseUrl;
+        this.httpClient = httpClient;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        this.circuitBreaker = circuitBreaker;
+        this.concurrencyLimit = concurrencyLimit;
+        this.acquireTimeout = acquireTimeout;
+        this.meterRegistry = meterRegistry;
+
+        this.rejectedOpen = Counter.builder(METRIC_PREFIX + ".rejected")
+                .tag("upstream", name).tag("reason", "circuit_open").register(meterRegistry);
+        this.rejectedLimit = Counter.builder(METRIC_PREFIX + ".rejected")
+                .tag("upstream", name).tag("reason", "limit").register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".active", concurrencyLimit, AdaptiveConcurrencyLimit::getInFlight)
+                .tag("upstream", name)
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".limit", concurrencyLimit, AdaptiveConcurrencyLimit::getLimit)
+                .tag("upstream", name)
+                .register(meterRegistry);
+        // 0 = closed, 1 = half-open, 2 = open
+        Gauge.builder(METRIC_PREFIX + ".circuit.state", circuitBreaker, b -> b.getState().ordinal())
+                .tag("upstream", name)
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".circuit.transitions", circuitBreaker, CircuitBreaker::getTransitions)
+                .tag("upstream", name)
+                .register(meterRegistry);
+    }
+
+    public boolean isAvailable() {
+        return circuitBreaker.isAcceptingCalls();
+    }
+
+    public void checkAvailable() {
+        if (!isAvailable()) {
+            rejectedOpen.increment();
+            throw new UpstreamUnavailableException(name + " is unavailable", circuitBreaker.remainingOpenTime());
+        }
+    }
+
+    // JSON POST through the pooled client, inside the bulkhead
+    public <T> T post(String endpoint, Object body, Class<T> responseType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        String url = baseUrl + endpoint;
+        log.debug("Calling {} API: {}", name, url);
+
+        Lease lease = acquire(endpoint);
+        try {
+            T response = restTemplate.postForEntity(url, new HttpEntity<>(body, headers), responseType).getBody();
+            lease.release("success");
+            return response;
+        } catch (RuntimeException e) {
+            lease.release(outcomeOf(e));
+            throw e;
+        }
+    }
+
+    /**
+     * Takes a slot for a call made outside {@link #post}, e.g. a streaming request.
+     * The caller must release the lease exactly once when the call has finished.
+     */
+    public Lease acquire(String endpoint) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            rejectedOpen.increment();
+            throw new UpstreamUnavailableException(name + " is unavailable", circuitBreaker.remainingOpenTime());
+        }
+
+        boolean acquired;
+        try {
+            acquired = concurrencyLimit.tryAcquire(acquireTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.onIgnored();
+            throw new IllegalStateException("Interrupted while waiting for a " + name + " slot", e);
+        }
+        if (!acquired) {
+            circuitBreaker.onIgnored();
+            rejectedLimit.increment();
+            throw new UpstreamUnavailableException(name + " is overloaded: "
+                    + concurrencyLimit.getLimit() + " calls already in progress", Duration.ofSeconds(1));
+        }
+        return new Lease(endpoint, System.nanoTime());
+    }
+
+    public static String outcomeOf(Throwable error) {
+        if (error instanceof HttpStatusCodeException statusError) {
+            return statusError.getStatusCode().is4xxClientError() ? "client_error" : "server_error";
+        }
+        if (error instanceof ResourceAccessException || error instanceof HttpTimeoutException
+                || error instanceof TimeoutException) {
+            return "io_error";
+        }
+        return "error";
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        httpClient.close();
+    }
+
+    public final class Lease {
+
+        private final String endpoint;
+        private final long startedAt;
+        private boolean released;
+
+        private Lease(String endpoint, long startedAt) {
+            this.endpoint = endpoint;
+            this.startedAt = startedAt;
+        }
+
+        public synchronized void release(String outcome) {
+            if (released) return;
+            released = true;
+
+            long latency = System.nanoTime() - startedAt;
+            // A 4xx is our fault, not a sign the upstream is struggling
+            boolean failed = !outcome.equals("success") && !outcome.equals("client_error");
+            concurrencyLimit.release(latency, failed);
+            if (failed) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+
+            Timer.builder(METRIC_PREFIX + ".requests")
+                    .tag("upstream", name)
+                    .tag("endpoint", endpoint)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(latency, TimeUnit.NANOSECONDS);
+        }
+    }
+}
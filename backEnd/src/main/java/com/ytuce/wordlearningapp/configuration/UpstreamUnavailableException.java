@@ -0,0 +1,19 @@
+package com.ytuce.wordlearningapp.configuration;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+// Thrown instead of queueing when an upstream's circuit is open or its concurrency limit stays full
+@Getter
+public class UpstreamUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public UpstreamUnavailableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,80 @@
+package com.ytuce.wordlearningapp.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs every task on its own virtual thread. At most maxConcurrency tasks run at once
+ * and at most queueCapacity wait for a slot; anything beyond that is rejected.
+ */
+public final class VirtualThreadTaskExecutor implements AsyncTaskExecutor, DisposableBean {
+
+    private final String name;
+    private final int maxConcurrency;
+    private final int queueCapacity;
+    private final TaskDecorator taskDecorator;
+    private final ExecutorService threads;
+    private final Semaphore slots;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final Counter rejected;
+
+    public VirtualThreadTaskExecutor(String name, int maxConcurrency, int queueCapacity,
+                                     TaskDecorator taskDecorator, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.maxConcurrency = maxConcurrency;
+        this.queueCapacity = queueCapacity;
+        this.taskDecorator = taskDecorator;
+        this.threads = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+        this.slots = new Semaphore(maxConcurrency, true);
+
+        Gauge.builder("async.executor.active", active, AtomicInteger::get).tag("name", name).register(meterRegistry);
+        Gauge.builder("async.executor.queued", this, VirtualThreadTaskExecutor::getQueueDepth).tag("name", name).register(meterRegistry);
+        this.rejected = Counter.builder("async.executor.rejected").tag("name", name).register(meterRegistry);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (pending.incrementAndGet() > maxConcurrency + queueCapacity) {
+            pending.decrementAndGet();
+            rejected.increment();
+            throw new TaskRejectedException("Executor '" + name + "' is saturated (" + maxConcurrency
+                    + " running, " + queueCapacity + " queued)");
+        }
+
+        Runnable decorated = taskDecorator != null ? taskDecorator.decorate(task) : task;
+        threads.execute(() -> {
+            try {
+                slots.acquireUninterruptibly();
+                active.incrementAndGet();
+                try {
+                    decorated.run();
+                } finally {
+                    active.decrementAndGet();
+                    slots.release();
+                }
+            } finally {
+                pending.decrementAndGet();
+            }
+        });
+    }
+
+    public int getQueueDepth() {
+        return Math.max(0, pending.get() - active.get());
+    }
+
+    @Override
+    public void destroy() {
+        threads.close();
+    }
+}
@@ -0,0 +1,36 @@
+package com.ytuce.wordlearningapp.controllers;
+
+import com.ytuce.wordlearningapp.configuration.UpstreamUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.Duration;
+import java.util.Map;
+
+// Load shedding: an overloaded upstream or a full executor queue becomes a 503 the client can retry
+@RestControllerAdvice
+@Slf4j
+public class ServiceUnavailableHandler {
+
+    @ExceptionHandler(UpstreamUnavailableException.class)
+    public ResponseEntity<Map<String, String>> upstreamUnavailable(UpstreamUnavailableException e) {
+        return serviceUnavailable(e.getMessage(), e.getRetryAfter());
+    }
+
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<Map<String, String>> taskRejected(TaskRejectedException e) {
+        return serviceUnavailable("Server is busy, try again later", Duration.ofSeconds(1));
+    }
+
+    private ResponseEntity<Map<String, String>> serviceUnavailable(String message, Duration retryAfter) {
+        log.debug("Shedding request: {}", message);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())))
+                .body(Map.of("error", message));
+    }
+}
@@ -1,13 +1,19 @@
 package com.ytuce.wordlearningapp.controllers;
 
+import com.ytuce.wordlearningapp.services.enrichment.EnrichmentJobService;
+import com.ytuce.wordlearningapp.services.enrichment.responses.EnrichmentJobDto;
 import com.ytuce.wordlearningapp.services.wordlist.requests.AddWordRequest;
+import com.ytuce.wordlearningapp.services.wordlist.requests.AddWordsRequest;
 import com.ytuce.wordlearningapp.services.wordlist.requests.CreateWordListRequest;
 import com.ytuce.wordlearningapp.services.wordlist.WordListService;
+import com.ytuce.wordlearningapp.services.wordlist.responses.AddWordResponse;
 import com.ytuce.wordlearningapp.services.wordlist.responses.WordListDto;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -17,10 +23,26 @@ import java.util.List;
 public class WordListController {
 
     private final WordListService wordListService;
+    private final EnrichmentJobService enrichmentJobService;
 
     @PostMapping("/{id}/add-word")
-    public void addWord(@PathVariable long id, @RequestBody AddWordRequest req, Authentication auth) {
-        wordListService.addWord(id, req, auth.getName());
+    public ResponseEntity<AddWordResponse> addWord(@PathVariable long id, @RequestBody AddWordRequest req, Authentication auth) {
+        return ResponseEntity.accepted().body(wordListService.addWord(id, req, auth.getName()));
+    }
+
+    @PostMapping("/{id}/add-words")
+    public ResponseEntity<AddWordResponse> addWords(@PathVariable long id, @RequestBody AddWordsRequest req, Authentication auth) {
+        return ResponseEntity.accepted().body(wordListService.addWords(id, req, auth.getName()));
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public EnrichmentJobDto getJob(@PathVariable String jobId, Authentication auth) {
+        return enrichmentJobService.getJob(jobId, auth.getName());
+    }
+
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamJob(@PathVariable String jobId, Authentication auth) {
+        return enrichmentJobService.subscribe(jobId, auth.getName());
     }
 
     @PostMapping("/create")
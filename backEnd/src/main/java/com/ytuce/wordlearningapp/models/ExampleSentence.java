@@ -14,7 +14,8 @@ import lombok.NoArgsConstructor;
 public class ExampleSentence {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "example_sentence_seq")
+    @SequenceGenerator(name = "example_sentence_seq", sequenceName = "example_sentence_seq", allocationSize = 50)
     private Long exampleSentenceId;
 
     private String sentenceTr;
@@ -1,12 +1,10 @@
 package com.ytuce.wordlearningapp.models;
 
-import com.ytuce.wordlearningapp.models.mappers.VectorConverter;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.ColumnTransformer;
 import org.springframework.context.annotation.Lazy;
 
 import java.util.List;
@@ -20,18 +18,14 @@ import java.util.List;
 public class Meaning {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "meaning_seq")
+    @SequenceGenerator(name = "meaning_seq", sequenceName = "meaning_seq", allocationSize = 50)
     private Long meaningId;
 
     @OneToMany(mappedBy = "meaning")
     @Lazy
     private List<WordWithMeaning> wordMeanings;
 
-    @Column(columnDefinition = "vector")
-    // This magic line tells Postgres: "Take this string input (?) and cast it to a vector"
-    @ColumnTransformer(write = "?::vector")
-    private String embedding;
-
     private String descriptionEn;
     private String descriptionTr;
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.ytuce.wordlearningapp.models;
+
+import com.ytuce.wordlearningapp.models.mappers.VectorType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Type;
+
+// Kept apart from Meaning so loading a meaning never drags its vector along; only similarity search reads it
+@Entity
+@Data
+@Table(name = "meaning_embedding")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MeaningEmbedding {
+
+    // all-MiniLM-L6-v2; ANN indexes need a fixed dimension on the column
+    public static final int DIMENSIONS = 384;
+
+    @Id
+    private Long meaningId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "meaning_id")
+    @ToString.Exclude
+    private Meaning meaning;
+
+    @Column(columnDefinition = "vector(" + DIMENSIONS + ")")
+    @Type(VectorType.class)
+    private float[] embedding;
+}
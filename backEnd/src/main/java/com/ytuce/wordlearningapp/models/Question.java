@@ -17,7 +17,8 @@ import java.util.List;
 public class Question {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "question_seq")
+    @SequenceGenerator(name = "question_seq", sequenceName = "question_seq", allocationSize = 50)
     private Long questionId;
 
     //private String questionType;
@@ -35,6 +36,11 @@ public class Question {
     @OneToMany(mappedBy = "question")
     private List<UserAnswer> userAnswers;
 
+    // The list word the question was generated for; only its schedule moves when the question is answered
+    @ManyToOne
+    @JoinColumn(name = "target_word_with_meaning_id")
+    private WordWithMeaning targetWordWithMeaning;
+
     @ManyToMany
     @JoinTable(
             name = "question_options",
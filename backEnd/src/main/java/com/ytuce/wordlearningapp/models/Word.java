@@ -7,10 +7,13 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.context.annotation.Lazy;
 
+import java.text.Normalizer;
 import java.util.List;
+import java.util.Locale;
 
 @Entity
 @Data
+// normalized_writing is unique (SchemaInitializer creates the index after merging old duplicates)
 @Table(name = "word")
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,12 +21,35 @@ import java.util.List;
 public class Word {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "word_seq")
+    @SequenceGenerator(name = "word_seq", sequenceName = "word_seq", allocationSize = 50)
     private Long wordId;
 
     private String writing;
 
+    // Lookup key, see normalize; kept in sync on every save
+    private String normalizedWriting;
+
     @OneToMany(mappedBy = "word")
     @Lazy
     private List<WordWithMeaning> meanings;
-}
\ No newline at end of file
+
+    @PrePersist
+    @PreUpdate
+    void updateNormalizedWriting() {
+        normalizedWriting = normalize(writing);
+    }
+
+    /**
+     * The form words are matched by: NFKC, trimmed and lowercased independently of the JVM locale.
+     * Turkish dotted İ and dotless ı fold to a plain i first, so "Bank", "BANK" and "bank" match
+     * on a Turkish system too.
+     */
+    public static String normalize(String writing) {
+        if (writing == null) return null;
+        String folded = Normalizer.normalize(writing, Normalizer.Form.NFKC)
+                .replace('İ', 'I')
+                .replace('ı', 'i');
+        return folded.trim().toLowerCase(Locale.ROOT);
+    }
+}
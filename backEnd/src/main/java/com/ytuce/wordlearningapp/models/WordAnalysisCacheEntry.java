@@ -0,0 +1,27 @@
+package com.ytuce.wordlearningapp.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Data
+@Table(name = "word_analysis_cache")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WordAnalysisCacheEntry {
+
+    @Id
+    private String cacheKey;
+
+    // WordAnalysisResult as JSON
+    @Column(columnDefinition = "text")
+    private String payload;
+
+    private Instant createdAt;
+}
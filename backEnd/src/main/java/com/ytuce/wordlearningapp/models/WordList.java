@@ -11,11 +11,22 @@ import java.util.List;
 @Entity
 @Data
 @Table(name = "word_list")
+// The list with each word's details, for quiz generation
+@NamedEntityGraph(name = WordList.WITH_WORDS, attributeNodes = {
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode(value = "wordWithMeaningList", subgraph = "details")
+}, subgraphs = @NamedSubgraph(name = "details", attributeNodes = {
+        @NamedAttributeNode("word"),
+        @NamedAttributeNode("meaning"),
+        @NamedAttributeNode("exampleSentence")
+}))
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class WordList {
 
+    public static final String WITH_WORDS = "WordList.withWords";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long wordListId;
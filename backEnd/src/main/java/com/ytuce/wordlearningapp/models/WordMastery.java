@@ -0,0 +1,82 @@
+package com.ytuce.wordlearningapp.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+// Running totals and review schedule per user and word, kept up to date as questions are answered so quiz
+// generation never has to replay the answer history. (user_id, word_with_meaning_id) is unique, see SchemaInitializer
+@Entity
+@Data
+// Quiz generation reads a user's due words in due order (WordMasteryRepository.findDueWordIds)
+@Table(name = "word_mastery", indexes = {
+        @Index(name = "idx_word_mastery_user_due", columnList = "user_id, due_at")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WordMastery {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long wordMasteryId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    @ToString.Exclude
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "word_with_meaning_id")
+    @ToString.Exclude
+    private WordWithMeaning wordWithMeaning;
+
+    // +1 for every correct answer to a question the word was an option in, -2 for every wrong one
+    private int score;
+
+    private int correctCount;
+    private int wrongCount;
+
+    private Instant lastAnsweredAt;
+
+    // SM-2 state: ease factor ("difficulty", lower is harder), current interval ("stability"),
+    // correct answers in a row and when the word should be asked again
+    private double easeFactor;
+    private int intervalDays;
+    private int repetitions;
+    private Instant dueAt;
+
+    private static final double MIN_EASE_FACTOR = 1.3;
+
+    /**
+     * SM-2 with a binary grade: a correct answer counts as quality 5, a wrong one as 2. The first two
+     * correct answers in a row schedule the word 1 and 6 days ahead, later ones multiply the interval
+     * by the ease factor; a wrong answer starts over at one day and lowers the ease factor.
+     */
+    public void recordAnswer(boolean correct, Instant now) {
+        int quality = correct ? 5 : 2;
+        score += correct ? 1 : -2;
+        if (correct) {
+            correctCount++;
+            repetitions++;
+            intervalDays = switch (repetitions) {
+                case 1 -> 1;
+                case 2 -> 6;
+                default -> (int) Math.round(intervalDays * easeFactor);
+            };
+        } else {
+            wrongCount++;
+            repetitions = 0;
+            intervalDays = 1;
+        }
+        easeFactor = Math.max(MIN_EASE_FACTOR, easeFactor + 0.1 - (5 - quality) * (0.08 + (5 - quality) * 0.02));
+        lastAnsweredAt = now;
+        dueAt = now.plus(intervalDays, ChronoUnit.DAYS);
+    }
+}
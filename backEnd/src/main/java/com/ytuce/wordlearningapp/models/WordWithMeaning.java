@@ -9,14 +9,26 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Data
-@Table(name = "word_with_meaning")
+// Candidate lookup goes by word and part of speech (MeaningExtractorService)
+@Table(name = "word_with_meaning", indexes = {
+        @Index(name = "idx_word_with_meaning_word_pos", columnList = "word_id, part_of_speech")
+})
+// Everything a quiz question or option shows
+@NamedEntityGraph(name = WordWithMeaning.DETAILS, attributeNodes = {
+        @NamedAttributeNode("word"),
+        @NamedAttributeNode("meaning"),
+        @NamedAttributeNode("exampleSentence")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class WordWithMeaning {
 
+    public static final String DETAILS = "WordWithMeaning.details";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "word_with_meaning_seq")
+    @SequenceGenerator(name = "word_with_meaning_seq", sequenceName = "word_with_meaning_seq", allocationSize = 50)
     private Long wordWithMeaningId;
 
     private String partOfSpeech;
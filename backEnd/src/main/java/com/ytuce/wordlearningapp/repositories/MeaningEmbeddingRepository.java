@@ -0,0 +1,7 @@
+package com.ytuce.wordlearningapp.repositories;
+
+import com.ytuce.wordlearningapp.models.MeaningEmbedding;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface MeaningEmbeddingRepository extends JpaRepository<MeaningEmbedding, Long>, MeaningVectorSearch {
+}
@@ -0,0 +1,23 @@
+package com.ytuce.wordlearningapp.repositories;
+
+import java.util.List;
+import java.util.function.ObjLongConsumer;
+
+// Nearest-neighbour queries over meaning_embedding; vectors are bound in pgvector's binary format
+public interface MeaningVectorSearch {
+
+    record Neighbour(long meaningId, double distance) {}
+
+    record QueryNeighbour(int queryIndex, long meaningId, double distance) {}
+
+    // Closest meanings by cosine distance, nearest first
+    List<Neighbour> findClosestByVector(float[] vector, int limit);
+
+    // Nearest neighbours for several query vectors in one round-trip; queryIndex is the 0-based position in vectors
+    List<QueryNeighbour> findClosestByVectors(List<float[]> vectors, int limit);
+
+    // Streams every embedding with meaning_id greater than afterMeaningId, in id order
+    void forEachEmbedding(long afterMeaningId, ObjLongConsumer<float[]> action);
+
+    long countEmbeddings();
+}
@@ -0,0 +1,138 @@
+package com.ytuce.wordlearningapp.repositories;
+
+import com.pgvector.PGvector;
+import com.ytuce.wordlearningapp.models.MeaningEmbedding;
+import com.ytuce.wordlearningapp.models.mappers.VectorType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+// Plain JDBC so the PGvector parameter reaches the driver as is; Hibernate would serialize it as bytea
+@RequiredArgsConstructor
+class MeaningVectorSearchImpl implements MeaningVectorSearch {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // approximate: use the HNSW/IVFFlat index, exact: scan and compare every embedding,
+    // binary: Hamming distance on sign bits for a candidate pool, then exact cosine re-ranking of the pool
+    @Value("${meaning-extractor.vector-search.mode:approximate}")
+    private String mode;
+
+    @Value("${meaning-extractor.vector-search.hnsw.ef-search:40}")
+    private int efSearch;
+
+    @Value("${meaning-extractor.vector-search.ivfflat.probes:10}")
+    private int probes;
+
+    // Candidates taken from the binary pass per requested neighbour
+    @Value("${meaning-extractor.vector-search.binary.rerank-factor:10}")
+    private int rerankFactor;
+
+    @Override
+    public List<Neighbour> findClosestByVector(float[] vector, int limit) {
+        String sql = """
+            SELECT m.meaning_id, m.distance
+            FROM (SELECT ?::vector AS v) q
+            CROSS JOIN LATERAL (%s) m
+            ORDER BY m.distance
+            """.formatted(nearest("q.v", limit));
+
+        return withSearchSettings(limit, () -> jdbcTemplate.query(sql,
+                (rs, rowNum) -> new Neighbour(rs.getLong(1), rs.getDouble(2)),
+                new PGvector(vector)));
+    }
+
+    @Override
+    public List<QueryNeighbour> findClosestByVectors(List<float[]> vectors, int limit) {
+        if (vectors.isEmpty()) {
+            return List.of();
+        }
+
+        StringBuilder values = new StringBuilder();
+        List<Object> params = new ArrayList<>(vectors.size());
+        for (int i = 0; i < vectors.size(); i++) {
+            values.append(i == 0 ? "(0, ?::vector)" : ", (" + i + ", ?)");
+            params.add(new PGvector(vectors.get(i)));
+        }
+
+        String sql = """
+            SELECT q.ord, m.meaning_id, m.distance
+            FROM (VALUES %s) AS q(ord, v)
+            CROSS JOIN LATERAL (%s) m
+            ORDER BY q.ord, m.distance
+            """.formatted(values, nearest("q.v", limit));
+
+        return withSearchSettings(limit, () -> jdbcTemplate.query(sql,
+                (rs, rowNum) -> new QueryNeighbour(rs.getInt(1), rs.getLong(2), rs.getDouble(3)),
+                params.toArray()));
+    }
+
+    // Nearest meanings to the vector expression v, for use in a LATERAL join
+    private String nearest(String v, int limit) {
+        if (isBinary()) {
+            // The inner ORDER BY must match the expression of meaning_embedding_bits_idx to use it
+            return """
+                SELECT meaning_id, embedding <=> %1$s AS distance FROM (
+                    SELECT meaning_id, embedding FROM meaning_embedding
+                    ORDER BY binary_quantize(embedding)::bit(%2$d) <~> binary_quantize(%1$s)
+                    LIMIT %3$d
+                ) pool
+                ORDER BY distance
+                LIMIT %4$d
+                """.formatted(v, MeaningEmbedding.DIMENSIONS, poolSize(limit), limit);
+        }
+        return """
+            SELECT meaning_id, embedding <=> %1$s AS distance FROM meaning_embedding
+            ORDER BY embedding <=> %1$s
+            LIMIT %2$d
+            """.formatted(v, limit);
+    }
+
+    private boolean isBinary() {
+        return mode.equalsIgnoreCase("binary");
+    }
+
+    private int poolSize(int limit) {
+        return limit * Math.max(1, rerankFactor);
+    }
+
+    @Override
+    public void forEachEmbedding(long afterMeaningId, ObjLongConsumer<float[]> action) {
+        // pgjdbc only streams with a fetch size inside a transaction; otherwise it buffers the whole result
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(1000);
+        transactionTemplate.executeWithoutResult(status -> streaming.query(
+                "SELECT meaning_id, embedding FROM meaning_embedding WHERE meaning_id > ? ORDER BY meaning_id",
+                (RowCallbackHandler) rs -> action.accept(VectorType.toArray(rs.getObject(2)), rs.getLong(1)),
+                afterMeaningId));
+    }
+
+    @Override
+    public long countEmbeddings() {
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM meaning_embedding", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    // The settings are transaction-local (set_config(..., true)), so they and the query share one transaction
+    private <T> T withSearchSettings(int limit, Supplier<T> query) {
+        return transactionTemplate.execute(status -> {
+            if (mode.equalsIgnoreCase("exact")) {
+                jdbcTemplate.queryForRowSet("SELECT set_config('enable_indexscan', 'off', true)");
+            } else {
+                // HNSW returns at most ef_search rows per scan
+                int rows = isBinary() ? poolSize(limit) : limit;
+                jdbcTemplate.queryForRowSet("SELECT set_config('hnsw.ef_search', ?, true), set_config('ivfflat.probes', ?, true)",
+                        String.valueOf(Math.max(efSearch, rows)), String.valueOf(probes));
+            }
+            return query.get();
+        });
+    }
+}
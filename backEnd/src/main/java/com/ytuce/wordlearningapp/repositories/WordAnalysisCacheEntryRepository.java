@@ -0,0 +1,18 @@
+package com.ytuce.wordlearningapp.repositories;
+
+import com.ytuce.wordlearningapp.models.WordAnalysisCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface WordAnalysisCacheEntryRepository extends JpaRepository<WordAnalysisCacheEntry, String> {
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM WordAnalysisCacheEntry e WHERE e.createdAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") Instant cutoff);
+}
@@ -2,11 +2,45 @@ package com.ytuce.wordlearningapp.repositories;
 
 import com.ytuce.wordlearningapp.models.User;
 import com.ytuce.wordlearningapp.models.WordList;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface WordListRepository extends JpaRepository<WordList, Long> {
     List<WordList> findByUser(User user);
+
+    @EntityGraph(WordList.WITH_WORDS)
+    Optional<WordList> findWithWordsByWordListId(long wordListId);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+        INSERT INTO word_list_word_meanings (word_list_id, word_with_meaning_id)
+        SELECT :wordListId, :wordWithMeaningId
+        WHERE NOT EXISTS (
+            SELECT 1 FROM word_list_word_meanings
+            WHERE word_list_id = :wordListId AND word_with_meaning_id = :wordWithMeaningId
+        )
+        """, nativeQuery = true)
+    int addWordIfAbsent(@Param("wordListId") long wordListId, @Param("wordWithMeaningId") long wordWithMeaningId);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+        INSERT INTO word_list_word_meanings (word_list_id, word_with_meaning_id)
+        SELECT DISTINCT :wordListId, w.word_with_meaning_id FROM word_with_meaning w
+        WHERE w.word_with_meaning_id IN (:wordWithMeaningIds)
+        AND NOT EXISTS (
+            SELECT 1 FROM word_list_word_meanings l
+            WHERE l.word_list_id = :wordListId AND l.word_with_meaning_id = w.word_with_meaning_id
+        )
+        """, nativeQuery = true)
+    int addWordsIfAbsent(@Param("wordListId") long wordListId, @Param("wordWithMeaningIds") Collection<Long> wordWithMeaningIds);
 }
@@ -0,0 +1,79 @@
+package com.ytuce.wordlearningapp.repositories;
+
+import com.ytuce.wordlearningapp.models.WordMastery;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface WordMasteryRepository extends JpaRepository<WordMastery, Long> {
+    // Rows are updated in Java (WordMastery.recordAnswer), so concurrent answers must not read the same state
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT m FROM WordMastery m
+            WHERE m.user.userId = :userId AND m.wordWithMeaning.wordWithMeaningId IN :wordWithMeaningIds
+            """)
+    List<WordMastery> findAllByUserAndWordsForUpdate(@Param("userId") long userId,
+                                                     @Param("wordWithMeaningIds") Collection<Long> wordWithMeaningIds);
+
+    // Words seen for the first time start out due now with SM-2's initial ease factor of 2.5
+    @Modifying
+    @Transactional
+    @Query(value = """
+        INSERT INTO word_mastery (user_id, word_with_meaning_id, score, correct_count, wrong_count,
+                                  ease_factor, interval_days, repetitions, due_at)
+        SELECT :userId, w.word_with_meaning_id, 0, 0, 0, 2.5, 0, 0, now()
+        FROM word_with_meaning w
+        WHERE w.word_with_meaning_id IN (:wordWithMeaningIds)
+        ON CONFLICT (user_id, word_with_meaning_id) DO NOTHING
+        """, nativeQuery = true)
+    int insertMissing(@Param("userId") long userId, @Param("wordWithMeaningIds") Collection<Long> wordWithMeaningIds);
+
+    // A range scan on (user_id, due_at) that stops after the limit; list membership is checked per row
+    @Query(value = """
+        SELECT m.word_with_meaning_id FROM word_mastery m
+        WHERE m.user_id = :userId AND m.due_at <= :now
+        AND EXISTS (
+            SELECT 1 FROM word_list_word_meanings l
+            WHERE l.word_list_id = :wordListId AND l.word_with_meaning_id = m.word_with_meaning_id
+        )
+        ORDER BY m.due_at
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Long> findDueWordIds(@Param("userId") long userId, @Param("wordListId") long wordListId,
+                              @Param("now") Instant now, @Param("limit") int limit);
+
+    // List words the user has never answered; word_mastery is probed per word through its (user_id, word_with_meaning_id) key
+    @Query(value = """
+        SELECT l.word_with_meaning_id FROM word_list_word_meanings l
+        WHERE l.word_list_id = :wordListId
+        AND NOT EXISTS (
+            SELECT 1 FROM word_mastery m
+            WHERE m.user_id = :userId AND m.word_with_meaning_id = l.word_with_meaning_id
+        )
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Long> findUnseenWordIds(@Param("userId") long userId, @Param("wordListId") long wordListId,
+                                 @Param("limit") int limit);
+
+    // Same range scan as findDueWordIds, for the words that are not due yet, soonest first
+    @Query(value = """
+        SELECT m.word_with_meaning_id FROM word_mastery m
+        WHERE m.user_id = :userId AND m.due_at > :now
+        AND EXISTS (
+            SELECT 1 FROM word_list_word_meanings l
+            WHERE l.word_list_id = :wordListId AND l.word_with_meaning_id = m.word_with_meaning_id
+        )
+        ORDER BY m.due_at
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Long> findNextDueWordIds(@Param("userId") long userId, @Param("wordListId") long wordListId,
+                                  @Param("now") Instant now, @Param("limit") int limit);
+}
@@ -2,11 +2,47 @@ package com.ytuce.wordlearningapp.repositories;
 
 import com.ytuce.wordlearningapp.models.Word;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.TreeMap;
 
 public interface WordRepository extends JpaRepository<Word, Long> {
-    Optional<Word> findOneByWriting(String writing);
-    List<Word> findAllByWritingIn(List<String> writings);
+    List<Word> findAllByNormalizedWritingIn(Collection<String> normalizedWritings);
+
+    // Case- and locale-insensitive match, see Word.normalize
+    default List<Word> findAllMatchingWritings(Collection<String> writings) {
+        return findAllByNormalizedWritingIn(writings.stream().map(Word::normalize).distinct().toList());
+    }
+
+    // Inserts the writings that are missing and returns every row, existing or new, in one statement.
+    // The no-op update is what makes RETURNING include rows that already existed. Normalized forms must be distinct.
+    // nextval hands out a whole pooled block per row; wasteful but never overlaps Hibernate's blocks.
+    @Query(value = """
+            INSERT INTO word (word_id, writing, normalized_writing)
+            SELECT nextval('word_seq'), t.writing, t.normalized_writing
+            FROM unnest(cast(:writings AS text[]), cast(:normalizedWritings AS text[])) AS t(writing, normalized_writing)
+            ON CONFLICT (normalized_writing) DO UPDATE SET normalized_writing = EXCLUDED.normalized_writing
+            RETURNING *
+            """, nativeQuery = true)
+    @Transactional
+    List<Word> upsertAll(@Param("writings") String[] writings,
+                         @Param("normalizedWritings") String[] normalizedWritings);
+
+    // Writings that normalize alike resolve to the same word, stored under the first one seen. Rows go in
+    // sorted by normalized form, so concurrent upserts lock the rows they share in the same order and
+    // cannot deadlock on each other.
+    default List<Word> upsertAllByWriting(Collection<String> writings) {
+        Map<String, String> byNormalized = new TreeMap<>();
+        writings.forEach(writing -> byNormalized.putIfAbsent(Word.normalize(writing), writing));
+        return upsertAll(byNormalized.values().toArray(String[]::new), byNormalized.keySet().toArray(String[]::new));
+    }
+
+    default Word upsertByWriting(String writing) {
+        return upsertAllByWriting(List.of(writing)).get(0);
+    }
 }
@@ -1,10 +1,102 @@
 package com.ytuce.wordlearningapp.repositories;
 
 import com.ytuce.wordlearningapp.models.WordWithMeaning;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 
-public interface WordWithMeaningRepository extends JpaRepository<WordWithMeaning, Long> {
-    Optional<WordWithMeaning> findByWord_WordIdAndMeaning_MeaningId(Long wordId, Long meaningId);
+public interface WordWithMeaningRepository extends JpaRepository<WordWithMeaning, Long>, WordWithMeaningScan {
+    // Everything needed to return an existing match comes back in one query
+    @Query("""
+            SELECT wwm FROM WordWithMeaning wwm
+            JOIN FETCH wwm.word w
+            JOIN FETCH wwm.meaning
+            LEFT JOIN FETCH wwm.exampleSentence
+            WHERE w.normalizedWriting = :normalizedWriting AND wwm.partOfSpeech = :partOfSpeech
+            """)
+    List<WordWithMeaning> findAllByNormalizedWritingAndPartOfSpeech(@Param("normalizedWriting") String normalizedWriting,
+                                                                    @Param("partOfSpeech") String partOfSpeech);
+
+    @Query("SELECT wwm FROM WordWithMeaning wwm WHERE wwm.word.wordId IN :wordIds AND wwm.meaning.meaningId IN :meaningIds")
+    List<WordWithMeaning> findAllByWordIdsAndMeaningIds(@Param("wordIds") Collection<Long> wordIds,
+                                                        @Param("meaningIds") Collection<Long> meaningIds);
+
+    // Same idea as WordRepository.upsertAll for (word, meaning, part of speech), with the arrays already
+    // sorted by that key; callers go through upsertAll.
+    @Query(value = """
+            INSERT INTO word_with_meaning (word_with_meaning_id, word_id, meaning_id, part_of_speech, example_sentence_id)
+            SELECT nextval('word_with_meaning_seq'), t.word_id, t.meaning_id, t.part_of_speech, t.example_sentence_id
+            FROM unnest(cast(:wordIds AS bigint[]), cast(:meaningIds AS bigint[]),
+                        cast(:partsOfSpeech AS text[]), cast(:exampleSentenceIds AS bigint[]))
+                 AS t(word_id, meaning_id, part_of_speech, example_sentence_id)
+            ON CONFLICT (word_id, meaning_id, part_of_speech) DO UPDATE
+                SET example_sentence_id = coalesce(word_with_meaning.example_sentence_id, EXCLUDED.example_sentence_id)
+            RETURNING *
+            """, nativeQuery = true)
+    @Transactional
+    List<WordWithMeaning> upsertAllSorted(@Param("wordIds") Long[] wordIds,
+                                          @Param("meaningIds") Long[] meaningIds,
+                                          @Param("partsOfSpeech") String[] partsOfSpeech,
+                                          @Param("exampleSentenceIds") Long[] exampleSentenceIds);
+
+    // The referenced rows must already be flushed. An existing pair keeps its example sentence, so the
+    // caller's new one may end up unused. Rows go in sorted by the conflict key, so concurrent upserts
+    // lock the pairs they share in the same order and cannot deadlock on each other.
+    default List<WordWithMeaning> upsertAll(Long[] wordIds, Long[] meaningIds, String[] partsOfSpeech, Long[] exampleSentenceIds) {
+        Integer[] order = new Integer[wordIds.length];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.<Integer, Long>comparing(i -> wordIds[i], Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(i -> meaningIds[i], Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(i -> partsOfSpeech[i], Comparator.nullsFirst(Comparator.naturalOrder())));
+        return upsertAllSorted(
+                Arrays.stream(order).map(i -> wordIds[i]).toArray(Long[]::new),
+                Arrays.stream(order).map(i -> meaningIds[i]).toArray(Long[]::new),
+                Arrays.stream(order).map(i -> partsOfSpeech[i]).toArray(String[]::new),
+                Arrays.stream(order).map(i -> exampleSentenceIds[i]).toArray(Long[]::new));
+    }
+
+    default WordWithMeaning upsert(Long wordId, Long meaningId, String partOfSpeech, Long exampleSentenceId) {
+        return upsertAll(new Long[]{wordId}, new Long[]{meaningId}, new String[]{partOfSpeech},
+                new Long[]{exampleSentenceId}).get(0);
+    }
+
+    @Query("""
+            SELECT wwm FROM WordWithMeaning wwm
+            JOIN FETCH wwm.word
+            JOIN FETCH wwm.meaning m
+            LEFT JOIN FETCH wwm.exampleSentence
+            WHERE m.meaningId IN :meaningIds
+            """)
+    List<WordWithMeaning> findAllByMeaningIds(@Param("meaningIds") Collection<Long> meaningIds);
+
+    @EntityGraph(WordWithMeaning.DETAILS)
+    List<WordWithMeaning> findAllWithDetailsByWordWithMeaningIdIn(Collection<Long> wordWithMeaningIds);
+
+    @Query("SELECT max(wwm.wordWithMeaningId) FROM WordWithMeaning wwm")
+    Long findMaxId();
+
+    // One primary key probe per start: the first row at or after it that is neither the excluded meaning nor
+    // the excluded writing. Ids have gaps (pooled sequence), so rows right after a gap are drawn more often.
+    @Query(value = """
+            SELECT w.word_with_meaning_id FROM unnest(cast(:starts AS bigint[])) AS s(start)
+            CROSS JOIN LATERAL (
+                SELECT c.word_with_meaning_id FROM word_with_meaning c
+                JOIN word x ON x.word_id = c.word_id
+                WHERE c.word_with_meaning_id >= s.start
+                AND c.meaning_id <> :meaningId
+                AND x.normalized_writing <> :normalizedWriting
+                ORDER BY c.word_with_meaning_id
+                LIMIT 1
+            ) w
+            """, nativeQuery = true)
+    List<Long> sampleFrom(@Param("starts") Long[] starts,
+                                     @Param("meaningId") long excludedMeaningId,
+                                     @Param("normalizedWriting") String excludedNormalizedWriting);
 }
@@ -0,0 +1,12 @@
+package com.ytuce.wordlearningapp.repositories;
+
+import java.util.function.Consumer;
+
+// Bulk reads of word_with_meaning ids that would be wasteful as entities
+public interface WordWithMeaningScan {
+
+    record DistractorRow(long wordWithMeaningId, long meaningId, long wordId, String partOfSpeech) {}
+
+    // Streams every word meaning that has both a word and a meaning
+    void forEachDistractorRow(Consumer<DistractorRow> action);
+}
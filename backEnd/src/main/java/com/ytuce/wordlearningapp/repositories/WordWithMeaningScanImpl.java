@@ -0,0 +1,28 @@
+package com.ytuce.wordlearningapp.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+class WordWithMeaningScanImpl implements WordWithMeaningScan {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void forEachDistractorRow(Consumer<DistractorRow> action) {
+        // pgjdbc only streams with a fetch size inside a transaction; otherwise it buffers the whole result
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(1000);
+        transactionTemplate.executeWithoutResult(status -> streaming.query("""
+                SELECT word_with_meaning_id, meaning_id, word_id, part_of_speech FROM word_with_meaning
+                WHERE meaning_id IS NOT NULL AND word_id IS NOT NULL
+                """,
+                (RowCallbackHandler) rs -> action.accept(new DistractorRow(
+                        rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getString(4)))));
+    }
+}
@@ -0,0 +1,67 @@
+package com.ytuce.wordlearningapp.services.enrichment;
+
+import com.ytuce.wordlearningapp.services.enrichment.responses.EnrichmentEventDto;
+import com.ytuce.wordlearningapp.services.enrichment.responses.EnrichmentJobDto;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Mutable job state; all access goes through EnrichmentJobService while holding the job's monitor,
+// except the outbox, which is filled under the monitor and sent from outside it
+@Getter
+@Setter
+class EnrichmentJob {
+
+    private final String jobId;
+    private final String userEmail;
+    private final long wordListId;
+    private final Instant createdAt = Instant.now();
+    private final List<EnrichmentEventDto> events = new ArrayList<>();
+    private final List<SseEmitter> emitters = new ArrayList<>();
+    private final List<Long> wordWithMeaningIds = new ArrayList<>();
+    private final List<String> failedWords = new ArrayList<>();
+    private final Queue<Delivery> outbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean delivering = new AtomicBoolean();
+
+    private EnrichmentJobStatus status = EnrichmentJobStatus.QUEUED;
+    private Long wordWithMeaningId;
+    private String wordWriting;
+    private String error;
+    private Instant finishedAt;
+
+    // One SSE event for one subscriber; complete closes the stream after it
+    record Delivery(SseEmitter emitter, String name, Object data, boolean complete) {}
+
+    EnrichmentJob(String jobId, String userEmail, long wordListId) {
+        this.jobId = jobId;
+        this.userEmail = userEmail;
+        this.wordListId = wordListId;
+    }
+
+    boolean isFinished() {
+        return status == EnrichmentJobStatus.COMPLETED || status == EnrichmentJobStatus.FAILED;
+    }
+
+    EnrichmentJobDto toDto() {
+        return EnrichmentJobDto.builder()
+                .jobId(jobId)
+                .wordListId(wordListId)
+                .status(status)
+                .events(List.copyOf(events))
+                .wordWithMeaningId(wordWithMeaningId)
+                .wordWithMeaningIds(List.copyOf(wordWithMeaningIds))
+                .failedWords(List.copyOf(failedWords))
+                .wordWriting(wordWriting)
+                .error(error)
+                .createdAt(createdAt)
+                .finishedAt(finishedAt)
+                .build();
+    }
+}
@@ -0,0 +1,249 @@
+package com.ytuce.wordlearningapp.services.enrichment;
+
+import com.ytuce.wordlearningapp.configuration.AsyncConfig;
+import com.ytuce.wordlearningapp.models.WordWithMeaning;
+import com.ytuce.wordlearningapp.services.enrichment.EnrichmentJob.Delivery;
+import com.ytuce.wordlearningapp.services.enrichment.responses.EnrichmentEventDto;
+import com.ytuce.wordlearningapp.services.enrichment.responses.EnrichmentJobDto;
+import com.ytuce.wordlearningapp.services.meaning_extractor.ExtractionStage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * In-memory store of word enrichment jobs. Keeps at most max-retained jobs, evicting finished
+ * ones oldest first and after the retention period; running jobs are never evicted, so new
+ * jobs are refused while all retained jobs are still running. Progress is pushed to SSE
+ * subscribers from the I/O executor, never from the pipeline thread that reported it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EnrichmentJobService {
+
+    @Qualifier(AsyncConfig.IO_EXECUTOR)
+    private final TaskExecutor ioExecutor;
+
+    @Value("${enrichment.jobs.max-retained:10000}")
+    private int maxRetained;
+
+    @Value("${enrichment.jobs.retention:1h}")
+    private Duration retention;
+
+    @Value("${enrichment.jobs.sse-timeout:10m}")
+    private Duration sseTimeout;
+
+    private final Map<String, EnrichmentJob> jobs = new HashMap<>();
+    // Finished jobs in the order they finished; guarded by the jobs monitor
+    private final ArrayDeque<EnrichmentJob> finished = new ArrayDeque<>();
+
+    public String create(String userEmail, long wordListId) {
+        EnrichmentJob job = new EnrichmentJob(UUID.randomUUID().toString(), userEmail, wordListId);
+        synchronized (jobs) {
+            purge();
+            if (jobs.size() >= maxRetained) {
+                throw new TaskRejectedException("All " + maxRetained + " retained enrichment jobs are still running");
+            }
+            jobs.put(job.getJobId(), job);
+        }
+        return job.getJobId();
+    }
+
+    public void recordStage(String jobId, ExtractionStage stage, WordWithMeaning wordWithMeaning) {
+        EnrichmentJob job = find(jobId);
+        if (job == null) return;
+
+        synchronized (job) {
+            if (job.isFinished()) return;
+
+            job.setStatus(EnrichmentJobStatus.RUNNING);
+            if (wordWithMeaning != null) {
+                job.setWordWithMeaningId(wordWithMeaning.getWordWithMeaningId());
+                job.setWordWriting(wordWithMeaning.getWord() != null ? wordWithMeaning.getWord().getWriting() : null);
+            }
+            appendEvent(job, stage.name().toLowerCase(Locale.ROOT));
+
+            if (stage == ExtractionStage.SYNONYMS_DONE) {
+                finish(job, EnrichmentJobStatus.COMPLETED, null);
+            }
+        }
+        if (stage == ExtractionStage.SYNONYMS_DONE) {
+            retire(job);
+        }
+        deliver(job);
+    }
+
+    // Bulk jobs save many words at once; records all of them, and the words that could not be saved,
+    // under a single SAVED event
+    public void recordSaved(String jobId, List<WordWithMeaning> saved, List<String> failedWords) {
+        EnrichmentJob job = find(jobId);
+        if (job == null) return;
+
+        synchronized (job) {
+            if (job.isFinished()) return;
+
+            job.setStatus(EnrichmentJobStatus.RUNNING);
+            saved.forEach(wwm -> job.getWordWithMeaningIds().add(wwm.getWordWithMeaningId()));
+            job.getFailedWords().addAll(failedWords);
+            appendEvent(job, ExtractionStage.SAVED.name().toLowerCase(Locale.ROOT));
+        }
+        deliver(job);
+    }
+
+    public void fail(String jobId, String error) {
+        EnrichmentJob job = find(jobId);
+        if (job == null) return;
+
+        synchronized (job) {
+            if (job.isFinished()) return;
+            finish(job, EnrichmentJobStatus.FAILED, error);
+        }
+        retire(job);
+        deliver(job);
+    }
+
+    public EnrichmentJobDto getJob(String jobId, String userEmail) {
+        EnrichmentJob job = findOwned(jobId, userEmail);
+        synchronized (job) {
+            return job.toDto();
+        }
+    }
+
+    public SseEmitter subscribe(String jobId, String userEmail) {
+        EnrichmentJob job = findOwned(jobId, userEmail);
+        SseEmitter emitter = new SseEmitter(sseTimeout.toMillis());
+
+        Runnable unsubscribe = () -> {
+            synchronized (job) {
+                job.getEmitters().remove(emitter);
+            }
+        };
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+
+        // Replay goes through the outbox too, so it cannot overtake or trail live events
+        synchronized (job) {
+            for (EnrichmentEventDto event : job.getEvents()) {
+                job.getOutbox().add(new Delivery(emitter, event.getStage(), event, false));
+            }
+            if (job.isFinished()) {
+                job.getOutbox().add(terminal(emitter, job));
+            } else {
+                job.getEmitters().add(emitter);
+            }
+        }
+        deliver(job);
+        return emitter;
+    }
+
+    // Caller holds the job's monitor
+    private void appendEvent(EnrichmentJob job, String stage) {
+        EnrichmentEventDto event = new EnrichmentEventDto(stage, Instant.now());
+        job.getEvents().add(event);
+        for (SseEmitter emitter : job.getEmitters()) {
+            job.getOutbox().add(new Delivery(emitter, stage, event, false));
+        }
+    }
+
+    // Caller holds the job's monitor
+    private void finish(EnrichmentJob job, EnrichmentJobStatus status, String error) {
+        job.setStatus(status);
+        job.setError(error);
+        job.setFinishedAt(Instant.now());
+
+        for (SseEmitter emitter : job.getEmitters()) {
+            job.getOutbox().add(terminal(emitter, job));
+        }
+        job.getEmitters().clear();
+    }
+
+    private static Delivery terminal(SseEmitter emitter, EnrichmentJob job) {
+        return new Delivery(emitter, job.getStatus().name().toLowerCase(Locale.ROOT), job.toDto(), true);
+    }
+
+    // Called once, by whoever finished the job, after releasing the job's monitor
+    private void retire(EnrichmentJob job) {
+        synchronized (jobs) {
+            finished.addLast(job);
+        }
+    }
+
+    // At most one drain per job runs at a time, so each subscriber sees events in order
+    private void deliver(EnrichmentJob job) {
+        if (job.getOutbox().isEmpty() || !job.getDelivering().compareAndSet(false, true)) return;
+        try {
+            ioExecutor.execute(() -> drain(job));
+        } catch (RuntimeException e) {
+            // Executor saturated: better late on this thread than never
+            drain(job);
+        }
+    }
+
+    private void drain(EnrichmentJob job) {
+        do {
+            Delivery delivery;
+            while ((delivery = job.getOutbox().poll()) != null) {
+                send(job, delivery);
+            }
+            job.getDelivering().set(false);
+            // Something may have been added between the last poll and the reset
+        } while (!job.getOutbox().isEmpty() && job.getDelivering().compareAndSet(false, true));
+    }
+
+    private void send(EnrichmentJob job, Delivery delivery) {
+        try {
+            delivery.emitter().send(SseEmitter.event().name(delivery.name()).data(delivery.data()));
+            if (delivery.complete()) {
+                delivery.emitter().complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Could not notify subscriber of job {}: {}", job.getJobId(), e.getMessage());
+            synchronized (job) {
+                job.getEmitters().remove(delivery.emitter());
+            }
+        }
+    }
+
+    private EnrichmentJob find(String jobId) {
+        synchronized (jobs) {
+            return jobs.get(jobId);
+        }
+    }
+
+    private EnrichmentJob findOwned(String jobId, String userEmail) {
+        EnrichmentJob job = find(jobId);
+        if (job == null) {
+            throw new RuntimeException("Job not found");
+        }
+        if (!job.getUserEmail().equals(userEmail)) {
+            throw new RuntimeException("Unauthorized: Cannot access another user's job");
+        }
+        return job;
+    }
+
+    // Caller holds the jobs monitor. Only finished jobs are evicted, oldest first, so this
+    // looks at the head of the finished queue and never scans the running ones
+    private void purge() {
+        Instant cutoff = Instant.now().minus(retention);
+        while (!finished.isEmpty()
+                && (jobs.size() >= maxRetained || finished.peekFirst().getFinishedAt().isBefore(cutoff))) {
+            jobs.remove(finished.pollFirst().getJobId());
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.ytuce.wordlearningapp.services.enrichment;
+
+public enum EnrichmentJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
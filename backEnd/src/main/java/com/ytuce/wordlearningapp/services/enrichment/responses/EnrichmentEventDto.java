@@ -0,0 +1,13 @@
+package com.ytuce.wordlearningapp.services.enrichment.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+public class EnrichmentEventDto {
+    private String stage;
+    private Instant at;
+}
@@ -0,0 +1,24 @@
+package com.ytuce.wordlearningapp.services.enrichment.responses;
+
+import com.ytuce.wordlearningapp.services.enrichment.EnrichmentJobStatus;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+public class EnrichmentJobDto {
+    private String jobId;
+    private long wordListId;
+    private EnrichmentJobStatus status;
+    private List<EnrichmentEventDto> events;
+    private Long wordWithMeaningId;
+    private List<Long> wordWithMeaningIds;
+    private List<String> failedWords;
+    private String wordWriting;
+    private String error;
+    private Instant createdAt;
+    private Instant finishedAt;
+}
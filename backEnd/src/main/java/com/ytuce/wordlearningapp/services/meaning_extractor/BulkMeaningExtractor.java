@@ -0,0 +1,412 @@
+package com.ytuce.wordlearningapp.services.meaning_extractor;
+
+import com.ytuce.wordlearningapp.configuration.AsyncConfig;
+import com.ytuce.wordlearningapp.configuration.UpstreamUnavailableException;
+import com.ytuce.wordlearningapp.models.ExampleSentence;
+import com.ytuce.wordlearningapp.models.Meaning;
+import com.ytuce.wordlearningapp.models.MeaningEmbedding;
+import com.ytuce.wordlearningapp.models.Word;
+import com.ytuce.wordlearningapp.models.WordWithMeaning;
+import com.ytuce.wordlearningapp.repositories.ExampleSentenceRepository;
+import com.ytuce.wordlearningapp.repositories.MeaningEmbeddingRepository;
+import com.ytuce.wordlearningapp.repositories.MeaningRepository;
+import com.ytuce.wordlearningapp.repositories.MeaningVectorSearch;
+import com.ytuce.wordlearningapp.repositories.WordRepository;
+import com.ytuce.wordlearningapp.repositories.WordWithMeaningRepository;
+import com.ytuce.wordlearningapp.services.meaning_extractor.index.MeaningVectorIndex;
+import com.ytuce.wordlearningapp.services.meaning_extractor.requests.CrossEncodeRequest;
+import com.ytuce.wordlearningapp.services.meaning_extractor.requests.ExtractMeaningRequest;
+import com.ytuce.wordlearningapp.services.meaning_extractor.responses.WordAnalysisResult;
+import com.ytuce.wordlearningapp.services.quiz.DistractorPool;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Pipelines many word selections through the extractor. LLM analyses run on the I/O executor
+ * with bounded parallelism and feed the embedding batcher as they finish; finished items are
+ * flushed in chunks with one candidate query, one cross-encode call and one transaction per chunk.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkMeaningExtractor {
+
+    private static final int CANDIDATE_LIMIT = 5;
+    // PostgreSQL's deadlock_detected and serialization_failure; the transaction was rolled back and can run again
+    private static final Set<String> RETRYABLE_SQL_STATES = Set.of("40P01", "40001");
+    private static final long RETRY_BACKOFF_MILLIS = 50;
+
+    private final MeaningExtractorService meaningExtractorService;
+    private final MeaningRepository meaningRepository;
+    private final MeaningEmbeddingRepository meaningEmbeddingRepository;
+    private final MeaningVectorIndex meaningVectorIndex;
+    private final WordRepository wordRepository;
+    private final WordWithMeaningRepository wordWithMeaningRepository;
+    private final ExampleSentenceRepository exampleSentenceRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final DistractorPool distractorPool;
+    @Qualifier(AsyncConfig.IO_EXECUTOR)
+    private final TaskExecutor ioExecutor;
+
+    @Value("${meaning-extractor.bulk.analysis-parallelism:4}")
+    private int analysisParallelism;
+
+    @Value("${meaning-extractor.bulk.flush-size:25}")
+    private int flushSize;
+
+    @Value("${meaning-extractor.bulk.flush-attempts:3}")
+    private int flushAttempts;
+
+    // failedWords are words that could not be analysed or embedded, or whose chunk could not be saved
+    public record Result(List<WordWithMeaning> words, List<WordAnalysisResult> analyses, List<String> failedWords) {}
+
+    // word is the selection as the user wrote it; analysis is null when it failed, failure null when nothing was thrown
+    private record Analyzed(String word, WordAnalysisResult analysis, float[] vector, Throwable failure) {
+        static Analyzed failed(String word, Throwable failure) {
+            return new Analyzed(word, null, null, failure);
+        }
+
+        boolean isFailed() {
+            return analysis == null;
+        }
+
+        String lemmaKey() {
+            return Word.normalize(analysis.getWord()) + "|"
+                    + Objects.toString(analysis.getPartOfSpeech(), "").trim().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    public Result extractAll(List<ExtractMeaningRequest> requests, ExtractionListener listener) {
+        List<ExtractMeaningRequest> unique = dedupeBySurfaceForm(requests);
+
+        BlockingQueue<Analyzed> ready = new LinkedBlockingQueue<>();
+        Pipeline pipeline = new Pipeline(unique, ready);
+        Map<String, WordWithMeaning> savedByLemma = new LinkedHashMap<>();
+        List<WordAnalysisResult> analyses = new ArrayList<>();
+        List<String> failedWords = new ArrayList<>();
+
+        try {
+            pipeline.start();
+
+            int received = 0;
+            while (received < unique.size()) {
+                List<Analyzed> chunk = new ArrayList<>(flushSize);
+                chunk.add(ready.take());
+                ready.drainTo(chunk, flushSize - 1);
+                received += chunk.size();
+
+                if (received == unique.size()) {
+                    listener.onStage(ExtractionStage.ANALYZED, null);
+                    listener.onStage(ExtractionStage.EMBEDDED, null);
+                }
+
+                Map<String, Analyzed> fresh = new LinkedHashMap<>();
+                for (Analyzed item : chunk) {
+                    if (item.isFailed()) {
+                        recordFailure(item, failedWords);
+                    } else if (!savedByLemma.containsKey(item.lemmaKey())) {
+                        fresh.putIfAbsent(item.lemmaKey(), item);
+                    }
+                }
+                if (fresh.isEmpty()) continue;
+
+                try {
+                    flushChunk(new ArrayList<>(fresh.values()), savedByLemma);
+                    fresh.values().forEach(item -> analyses.add(item.analysis()));
+                } catch (RuntimeException e) {
+                    log.warn("Bulk flush of {} words failed: {}", fresh.size(), e.getMessage());
+                    fresh.values().forEach(item -> failedWords.add(item.analysis().getWord()));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during bulk extraction", e);
+        } finally {
+            pipeline.stop();
+        }
+
+        listener.onStage(ExtractionStage.MATCHED, null);
+        return new Result(List.copyOf(new LinkedHashSet<>(savedByLemma.values())), analyses, failedWords);
+    }
+
+    // Logged here rather than in the callbacks, which may run on another job's thread, so the warning carries this
+    // job's MDC. An unavailable upstream or a saturated executor fails the whole job, as on the single-word path.
+    private static void recordFailure(Analyzed item, List<String> failedWords) {
+        Throwable failure = item.failure();
+        if (failure instanceof UpstreamUnavailableException || failure instanceof TaskRejectedException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure != null) {
+            log.warn("Bulk analysis failed for '{}': {}", item.word(), failure.getMessage());
+        }
+        failedWords.add(item.word());
+    }
+
+    private List<ExtractMeaningRequest> dedupeBySurfaceForm(List<ExtractMeaningRequest> requests) {
+        Map<String, ExtractMeaningRequest> unique = new LinkedHashMap<>();
+        for (ExtractMeaningRequest req : requests) {
+            unique.putIfAbsent(selectedWord(req).toLowerCase(Locale.ROOT), req);
+        }
+        return new ArrayList<>(unique.values());
+    }
+
+    private static String selectedWord(ExtractMeaningRequest req) {
+        return req.getSentence()
+                .substring(req.getWordStartIndex(), req.getWordStartIndex() + req.getWordLength())
+                .trim();
+    }
+
+    /**
+     * Keeps analysis-parallelism analyses on the I/O executor; each one that finishes submits the next request.
+     * Embeddings are awaited through callbacks, so no executor slot is held while the batcher, which sends
+     * from the same executor, fills its batch.
+     */
+    private final class Pipeline {
+
+        private final List<ExtractMeaningRequest> requests;
+        private final BlockingQueue<Analyzed> ready;
+        private final AtomicInteger next = new AtomicInteger();
+        private final List<CompletableFuture<Analyzed>> tasks = new CopyOnWriteArrayList<>();
+        private volatile boolean stopped;
+
+        Pipeline(List<ExtractMeaningRequest> requests, BlockingQueue<Analyzed> ready) {
+            this.requests = requests;
+            this.ready = ready;
+        }
+
+        void start() {
+            for (int i = 0; i < analysisParallelism; i++) {
+                analyzeNext();
+            }
+        }
+
+        // Nothing new is submitted afterwards; results of the ones still running are dropped
+        void stop() {
+            stopped = true;
+            tasks.forEach(task -> task.cancel(false));
+        }
+
+        private void analyzeNext() {
+            int index = next.getAndIncrement();
+            if (stopped || index >= requests.size()) return;
+            ExtractMeaningRequest req = requests.get(index);
+            String word = selectedWord(req);
+
+            CompletableFuture<WordAnalysisResult> analysis;
+            try {
+                analysis = CompletableFuture.supplyAsync(() -> meaningExtractorService.analyzeWord(req), ioExecutor);
+            } catch (TaskRejectedException e) {
+                ready.add(Analyzed.failed(word, e));
+                return;
+            }
+
+            CompletableFuture<Analyzed> task = analysis
+                    .whenComplete((result, e) -> analyzeNext())
+                    .thenCompose(result -> result == null || result.getWord() == null
+                            ? CompletableFuture.completedFuture(Analyzed.failed(word, null))
+                            : meaningExtractorService.embedAsync(MeaningExtractorService.combinedText(result))
+                                    .thenApply(vector -> new Analyzed(word, result, vector, null)))
+                    .exceptionally(e -> Analyzed.failed(word, e instanceof CompletionException && e.getCause() != null ? e.getCause() : e));
+            tasks.add(task);
+            task.thenAccept(ready::add);
+        }
+    }
+
+    // Matching happens once; only the transaction is retried when it loses a deadlock or a serialization check
+    private void flushChunk(List<Analyzed> items, Map<String, WordWithMeaning> savedByLemma) throws InterruptedException {
+        List<Meaning> matches = matchMeanings(items);
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                savedByLemma.putAll(saveChunk(items, matches));
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= flushAttempts || !isRetryable(e)) {
+                    throw e;
+                }
+                log.info("Bulk flush of {} words hit a lock conflict, retrying ({}/{})", items.size(), attempt, flushAttempts);
+                Thread.sleep(RETRY_BACKOFF_MILLIS * attempt + ThreadLocalRandom.current().nextLong(RETRY_BACKOFF_MILLIS));
+            }
+        }
+    }
+
+    private static boolean isRetryable(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && RETRYABLE_SQL_STATES.contains(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Index and pool updates are registered for after commit, so a rolled back attempt leaves nothing behind
+    private Map<String, WordWithMeaning> saveChunk(List<Analyzed> items, List<Meaning> matches) {
+        return transactionTemplate.execute(status -> {
+            // Upserted rather than looked up, so chunks from parallel pipelines that share a word agree on its row
+            Map<String, Word> words = wordRepository.upsertAllByWriting(items.stream()
+                            .map(item -> item.analysis().getWord())
+                            .toList())
+                    .stream()
+                    .collect(Collectors.toMap(Word::getNormalizedWriting, Function.identity()));
+
+            Map<String, WordWithMeaning> existing = findExistingWordMeanings(words.values(), matches);
+
+            List<Meaning> newMeanings = new ArrayList<>();
+            List<MeaningEmbedding> newEmbeddings = new ArrayList<>();
+            List<NewPair> newPairs = new ArrayList<>();
+            Map<String, WordWithMeaning> resolved = new LinkedHashMap<>();
+
+            for (int i = 0; i < items.size(); i++) {
+                WordAnalysisResult analysis = items.get(i).analysis();
+                Meaning meaning = matches.get(i);
+                Word word = words.get(Word.normalize(analysis.getWord()));
+
+                if (meaning != null) {
+                    WordWithMeaning found = existing.get(wordMeaningKey(word.getWordId(), meaning.getMeaningId(), analysis.getPartOfSpeech()));
+                    if (found != null) {
+                        resolved.put(items.get(i).lemmaKey(), found);
+                        continue;
+                    }
+                }
+
+                if (meaning == null) {
+                    meaning = Meaning.builder()
+                            .descriptionEn(analysis.getMeaningEN())
+                            .descriptionTr(analysis.getMeaningTR())
+                            .build();
+                    newMeanings.add(meaning);
+                    newEmbeddings.add(MeaningEmbedding.builder()
+                            .meaning(meaning)
+                            .embedding(items.get(i).vector())
+                            .build());
+                }
+
+                ExampleSentence exampleSentence = ExampleSentence.builder()
+                        .sentenceTr(analysis.getExampleSentenceTR())
+                        .sentenceEn(analysis.getExampleSentence())
+                        .build();
+                newPairs.add(new NewPair(items.get(i).lemmaKey(), word, meaning, analysis.getPartOfSpeech(), exampleSentence));
+                // Keeps the chunk's order; filled in once the pairs are upserted
+                resolved.put(items.get(i).lemmaKey(), null);
+            }
+
+            meaningRepository.saveAll(newMeanings);
+            meaningVectorIndex.added(meaningEmbeddingRepository.saveAll(newEmbeddings));
+            exampleSentenceRepository.saveAll(newPairs.stream().map(NewPair::exampleSentence).toList());
+            resolved.putAll(upsertPairs(newPairs));
+            return resolved;
+        });
+    }
+
+    private record NewPair(String lemmaKey, Word word, Meaning meaning, String partOfSpeech, ExampleSentence exampleSentence) {}
+
+    // One statement for all new pairs; pairs another pipeline saved first come back with their own
+    // example sentence, and the one made here is removed again
+    private Map<String, WordWithMeaning> upsertPairs(List<NewPair> pairs) {
+        if (pairs.isEmpty()) {
+            return Map.of();
+        }
+        // The upsert is native SQL, so the meanings and sentences it references must be written first
+        exampleSentenceRepository.flush();
+
+        Map<String, WordWithMeaning> saved = new HashMap<>();
+        for (WordWithMeaning wwm : wordWithMeaningRepository.upsertAll(
+                pairs.stream().map(pair -> pair.word().getWordId()).toArray(Long[]::new),
+                pairs.stream().map(pair -> pair.meaning().getMeaningId()).toArray(Long[]::new),
+                pairs.stream().map(NewPair::partOfSpeech).toArray(String[]::new),
+                pairs.stream().map(pair -> pair.exampleSentence().getExampleSentenceId()).toArray(Long[]::new))) {
+            saved.put(wordMeaningKey(wwm.getWord().getWordId(), wwm.getMeaning().getMeaningId(), wwm.getPartOfSpeech()), wwm);
+        }
+
+        Map<String, WordWithMeaning> byLemma = new HashMap<>();
+        List<ExampleSentence> unused = new ArrayList<>();
+        for (NewPair pair : pairs) {
+            WordWithMeaning wwm = saved.get(wordMeaningKey(pair.word().getWordId(), pair.meaning().getMeaningId(), pair.partOfSpeech()));
+            byLemma.put(pair.lemmaKey(), wwm);
+            if (!pair.exampleSentence().getExampleSentenceId().equals(wwm.getExampleSentence().getExampleSentenceId())) {
+                unused.add(pair.exampleSentence());
+            }
+        }
+        exampleSentenceRepository.deleteAll(unused);
+        distractorPool.added(saved.values());
+        return byLemma;
+    }
+
+    // One nearest-neighbour query and one cross-encode call for the whole chunk; null where nothing matched
+    private List<Meaning> matchMeanings(List<Analyzed> items) {
+        List<float[]> vectors = items.stream().map(Analyzed::vector).toList();
+
+        Map<Integer, List<Long>> candidateIds = new HashMap<>();
+        for (MeaningVectorSearch.QueryNeighbour row : meaningVectorIndex.findClosest(vectors, CANDIDATE_LIMIT)) {
+            candidateIds.computeIfAbsent(row.queryIndex(), k -> new ArrayList<>()).add(row.meaningId());
+        }
+
+        Map<Long, Meaning> meanings = meaningRepository.findAllById(candidateIds.values().stream()
+                        .flatMap(List::stream)
+                        .distinct()
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(Meaning::getMeaningId, Function.identity()));
+
+        List<CrossEncodeRequest> pairs = new ArrayList<>();
+        List<Integer> pairItems = new ArrayList<>();
+        List<Meaning> pairMeanings = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            String combinedText = MeaningExtractorService.combinedText(items.get(i).analysis());
+            for (Long meaningId : candidateIds.getOrDefault(i, List.of())) {
+                Meaning candidate = meanings.get(meaningId);
+                if (candidate == null || candidate.getDescriptionEn() == null) continue;
+                pairs.add(new CrossEncodeRequest(combinedText, candidate.getDescriptionEn()));
+                pairItems.add(i);
+                pairMeanings.add(candidate);
+            }
+        }
+
+        List<Meaning> matches = new ArrayList<>(Collections.nCopies(items.size(), null));
+        if (pairs.isEmpty()) {
+            return matches;
+        }
+
+        double[] scores = meaningExtractorService.scorePairs(pairs);
+        double[] bestScores = new double[items.size()];
+        for (int p = 0; p < scores.length; p++) {
+            int item = pairItems.get(p);
+            if (scores[p] >= MeaningExtractorService.SYNONYM_THRESHOLD && scores[p] > bestScores[item]) {
+                bestScores[item] = scores[p];
+                matches.set(item, pairMeanings.get(p));
+            }
+        }
+        return matches;
+    }
+
+    private Map<String, WordWithMeaning> findExistingWordMeanings(Collection<Word> words, List<Meaning> matches) {
+        List<Long> wordIds = words.stream().map(Word::getWordId).toList();
+        List<Long> meaningIds = matches.stream().filter(Objects::nonNull).map(Meaning::getMeaningId).distinct().toList();
+        if (wordIds.isEmpty() || meaningIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, WordWithMeaning> existing = new HashMap<>();
+        for (WordWithMeaning wwm : wordWithMeaningRepository.findAllByWordIdsAndMeaningIds(wordIds, meaningIds)) {
+            existing.putIfAbsent(wordMeaningKey(wwm.getWord().getWordId(), wwm.getMeaning().getMeaningId(), wwm.getPartOfSpeech()), wwm);
+        }
+        return existing;
+    }
+
+    private static String wordMeaningKey(Long wordId, Long meaningId, String partOfSpeech) {
+        return wordId + "|" + meaningId + "|" + partOfSpeech;
+    }
+}
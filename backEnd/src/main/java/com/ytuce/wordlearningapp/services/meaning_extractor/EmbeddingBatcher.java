@@ -0,0 +1,191 @@
+package com.ytuce.wordlearningapp.services.meaning_extractor;
+
+import com.ytuce.wordlearningapp.configuration.AsyncConfig;
+import com.ytuce.wordlearningapp.configuration.HttpClientConfig;
+import com.ytuce.wordlearningapp.configuration.UpstreamClient;
+import com.ytuce.wordlearningapp.services.meaning_extractor.requests.BatchVectorRequest;
+import com.ytuce.wordlearningapp.services.meaning_extractor.responses.BatchVectorResponse;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects single-text embedding requests from concurrent callers and sends them
+ * to /vectorize-batch, flushing when max-size requests are queued or the linger
+ * window after the first one has passed. Batches are sent from the I/O executor, at most
+ * max-in-flight at a time, so one slow call does not hold up the next batch.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmbeddingBatcher {
+
+    private static final String METRIC_PREFIX = "meaning_extractor.embedding_batch";
+
+    private final MeterRegistry meterRegistry;
+    @Qualifier(HttpClientConfig.PYTHON_SERVICE)
+    private final UpstreamClient pythonService;
+    @Qualifier(AsyncConfig.IO_EXECUTOR)
+    private final TaskExecutor ioExecutor;
+
+    @Value("${meaning-extractor.embedding-batch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${meaning-extractor.embedding-batch.max-size:32}")
+    private int maxBatchSize;
+
+    @Value("${meaning-extractor.embedding-batch.linger:10ms}")
+    private Duration linger;
+
+    @Value("${meaning-extractor.embedding-batch.max-in-flight:32}")
+    private int maxInFlight;
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private volatile boolean running;
+    private Thread dispatcher;
+    private Semaphore inFlight;
+
+    private DistributionSummary fillRatio;
+    private DistributionSummary batchSize;
+    private Timer queueWait;
+    private Timer flushLatency;
+
+    private record Pending(String text, CompletableFuture<float[]> future, long enqueuedAt) {}
+
+    @PostConstruct
+    public void init() {
+        fillRatio = DistributionSummary.builder(METRIC_PREFIX + ".fill_ratio").register(meterRegistry);
+        batchSize = DistributionSummary.builder(METRIC_PREFIX + ".size").register(meterRegistry);
+        queueWait = Timer.builder(METRIC_PREFIX + ".queue_wait").register(meterRegistry);
+        flushLatency = Timer.builder(METRIC_PREFIX + ".flush").register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".queued", queue, BlockingQueue::size).register(meterRegistry);
+
+        if (enabled) {
+            inFlight = new Semaphore(maxInFlight);
+            running = true;
+            dispatcher = Thread.ofPlatform().daemon().name("embedding-batcher").start(this::dispatchLoop);
+            log.info("EmbeddingBatcher started with maxBatchSize={}, linger={}, maxInFlight={}", maxBatchSize, linger, maxInFlight);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CompletableFuture<float[]> submit(String text) {
+        CompletableFuture<float[]> future = new CompletableFuture<>();
+        if (!running) {
+            future.completeExceptionally(new IllegalStateException("Embedding batcher is not running"));
+            return future;
+        }
+        Pending pending = new Pending(text, future, System.nanoTime());
+        queue.add(pending);
+        // Stopped in between: the dispatcher may already have drained the queue for the last time
+        if (!running && queue.remove(pending)) {
+            future.completeExceptionally(new IllegalStateException("Embedding batcher is not running"));
+        }
+        return future;
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            List<Pending> batch = new ArrayList<>(maxBatchSize);
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + linger.toNanos();
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) break;
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                // Requests keep queueing while every slot is busy, so the next batch fills up
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(p -> p.future().completeExceptionally(e));
+                break;
+            }
+            dispatch(batch);
+        }
+
+        List<Pending> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.forEach(p -> p.future().completeExceptionally(new IllegalStateException("Embedding batcher stopped")));
+    }
+
+    private void dispatch(List<Pending> batch) {
+        try {
+            ioExecutor.execute(() -> {
+                try {
+                    flush(batch);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            // I/O executor saturated: send it from here rather than fail the callers
+            try {
+                flush(batch);
+            } finally {
+                inFlight.release();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        long flushStart = System.nanoTime();
+        for (Pending p : batch) {
+            queueWait.record(flushStart - p.enqueuedAt(), TimeUnit.NANOSECONDS);
+        }
+        fillRatio.record((double) batch.size() / maxBatchSize);
+        batchSize.record(batch.size());
+
+        try {
+            List<float[]> vectors = requestBatch(batch.stream().map(Pending::text).toList());
+            if (vectors == null || vectors.size() != batch.size()) {
+                throw new IllegalStateException("vectorize-batch returned "
+                        + (vectors == null ? 0 : vectors.size()) + " vectors for " + batch.size() + " texts");
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future().complete(vectors.get(i));
+            }
+        } catch (Exception e) {
+            log.warn("Embedding batch of {} failed: {}", batch.size(), e.getMessage());
+            batch.forEach(p -> p.future().completeExceptionally(e));
+        } finally {
+            flushLatency.record(System.nanoTime() - flushStart, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private List<float[]> requestBatch(List<String> texts) {
+        return pythonService.post("/vectorize-batch", new BatchVectorRequest(texts), BatchVectorResponse.class).getVectors();
+    }
+}
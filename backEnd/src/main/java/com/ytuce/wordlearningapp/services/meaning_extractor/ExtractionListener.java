@@ -0,0 +1,15 @@
+package com.ytuce.wordlearningapp.services.meaning_extractor;
+
+import com.ytuce.wordlearningapp.models.WordWithMeaning;
+
+/**
+ * Progress callback for the requested (root) word of an extraction.
+ * wordWithMeaning is only set for SAVED; SYNONYMS_DONE fires once the whole synonym tree has finished.
+ */
+@FunctionalInterface
+public interface ExtractionListener {
+
+    ExtractionListener NONE = (stage, wordWithMeaning) -> {};
+
+    void onStage(ExtractionStage stage, WordWithMeaning wordWithMeaning);
+}
@@ -0,0 +1,9 @@
+package com.ytuce.wordlearningapp.services.meaning_extractor;
+
+public enum ExtractionStage {
+    ANALYZED,
+    EMBEDDED,
+    MATCHED,
+    SAVED,
+    SYNONYMS_DONE
+}
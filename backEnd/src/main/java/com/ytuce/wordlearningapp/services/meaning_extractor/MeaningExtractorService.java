@@ -1,33 +1,49 @@
 package com.ytuce.wordlearningapp.services.meaning_extractor;
 
+import com.ytuce.wordlearningapp.configuration.AsyncConfig;
+import com.ytuce.wordlearningapp.configuration.HttpClientConfig;
+import com.ytuce.wordlearningapp.configuration.UpstreamClient;
+import com.ytuce.wordlearningapp.configuration.UpstreamUnavailableException;
 import com.ytuce.wordlearningapp.models.ExampleSentence;
 import com.ytuce.wordlearningapp.models.Meaning;
+import com.ytuce.wordlearningapp.models.MeaningEmbedding;
 import com.ytuce.wordlearningapp.models.Word;
 import com.ytuce.wordlearningapp.models.WordWithMeaning;
 import com.ytuce.wordlearningapp.repositories.*;
+import com.ytuce.wordlearningapp.services.meaning_extractor.cache.EmbeddingCache;
+import com.ytuce.wordlearningapp.services.meaning_extractor.cache.WordAnalysisCache;
+import com.ytuce.wordlearningapp.services.meaning_extractor.index.MeaningVectorIndex;
+import com.ytuce.wordlearningapp.services.meaning_extractor.requests.BatchCrossEncodeRequest;
+import com.ytuce.wordlearningapp.services.meaning_extractor.requests.CrossEncodeRequest;
 import com.ytuce.wordlearningapp.services.meaning_extractor.requests.ExtractMeaningRequest;
-import com.ytuce.wordlearningapp.services.meaning_extractor.requests.TextGenerationRequest;
 import com.ytuce.wordlearningapp.services.meaning_extractor.requests.VectorRequest;
 import com.ytuce.wordlearningapp.services.meaning_extractor.responses.SynonymDto;
-import com.ytuce.wordlearningapp.services.meaning_extractor.responses.TextGenerationResponse;
 import com.ytuce.wordlearningapp.services.meaning_extractor.responses.WordAnalysisResult;
+import com.ytuce.wordlearningapp.services.quiz.DistractorPool;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
-record VectorResponse(List<Double> vector) {}
-record CrossEncodeRequest(String sentence_a, String sentence_b) {}
-record CrossEncodeResponse(Double score) {}
+record VectorResponse(float[] vector) {}
+record BatchCrossEncodeResponse(double[] scores) {}
 
 @Service
 @RequiredArgsConstructor
@@ -36,118 +52,195 @@ public class MeaningExtractorService {
 
     private final WordRepository wordRepository;
     private final MeaningRepository meaningRepository;
+    private final MeaningEmbeddingRepository meaningEmbeddingRepository;
+    private final MeaningVectorIndex meaningVectorIndex;
     private final WordWithMeaningRepository wordWithMeaningRepository;
     private final ExampleSentenceRepository exampleSentenceRepository;
-    private RestTemplate restTemplate = new RestTemplate();
+    private final WordAnalysisCache analysisCache;
+    private final EmbeddingCache embeddingCache;
+    private final EmbeddingBatcher embeddingBatcher;
+    private final OllamaClient ollamaClient;
+    @Qualifier(AsyncConfig.SYNONYM_EXECUTOR)
+    private final TaskExecutor synonymExecutor;
+    @Qualifier(AsyncConfig.IO_EXECUTOR)
+    private final TaskExecutor ioExecutor;
+    @Qualifier(HttpClientConfig.PYTHON_SERVICE)
+    private final UpstreamClient pythonService;
+    private final TransactionTemplate transactionTemplate;
+    private final DistractorPool distractorPool;
     private ObjectMapper objectMapper = new ObjectMapper();
 
-    @Value("${external.python-service.url:http://localhost:8000}")
-    private String pythonServiceUrl;
+    // Stream the generation and start embedding / candidate lookup once word and meaningEN are complete
+    @Value("${meaning-extractor.llm.streaming:true}")
+    private boolean streamingEnabled;
 
-    @Value("${external.ollama.url:http://localhost:11434}")
-    private String ollamaUrl;
+    @Value("${meaning-extractor.synonyms.max-concurrent-per-request:2}")
+    private int maxConcurrentSynonymsPerRequest;
 
     private static final int MAX_RECURSION_DEPTH = 2;
+    static final double SYNONYM_THRESHOLD = 0.65;
 
     @PostConstruct
     public void init() {
-        log.info("MeaningExtractorService initialized with pythonServiceUrl={}, ollamaUrl={}", 
-                pythonServiceUrl, ollamaUrl);
+        log.info("MeaningExtractorService initialized with pythonServiceUrl={}, streaming={}",
+                pythonService.getBaseUrl(), streamingEnabled);
     }
 
     //@Transactional
     public WordWithMeaning extractMeaning(ExtractMeaningRequest req) {
-        return extractMeaningRecursive(req, 0);
+        return extractMeaning(req, ExtractionListener.NONE);
     }
 
-    @Async
-    private WordWithMeaning extractMeaningRecursive(ExtractMeaningRequest req, int currentDepth) {
+    /**
+     * Resolves the requested word and returns as soon as it is saved; its synonyms
+     * are expanded in the background on the synonym executor.
+     */
+    public WordWithMeaning extractMeaning(ExtractMeaningRequest req, ExtractionListener listener) {
+        SynonymExpansion expansion = new SynonymExpansion(maxConcurrentSynonymsPerRequest, synonymExecutor, listener);
+        WordWithMeaning result = extractMeaningRecursive(req, 0, expansion);
+        expansion.rootFinished(result != null);
+        return result;
+    }
+
+    private WordWithMeaning extractMeaningRecursive(ExtractMeaningRequest req, int currentDepth, SynonymExpansion expansion) {
         try {
-            WordAnalysisResult analysisResult = analyzeWord(req);
+            CandidatePrefetch prefetch = new CandidatePrefetch();
+            WordAnalysisResult analysisResult = analyzeWord(req, prefetch);
             if (analysisResult == null) return null;
 
-            String combinedText = analysisResult.getWord() + " : " + analysisResult.getMeaningEN();
-            String vectorString = getVectorEmbedding(combinedText);
-
-            List<Meaning> candidates = meaningRepository.findClosestByVector(vectorString, 5);
+            expansion.visit(analysisResult.getWord());
+            expansion.report(currentDepth, ExtractionStage.ANALYZED, null);
+
+            String combinedText = combinedText(analysisResult);
+            float[] vector = getVectorEmbedding(combinedText);
+            expansion.report(currentDepth, ExtractionStage.EMBEDDED, null);
+
+            // Meanings this word already has with the same part of speech are the likeliest match,
+            // and a hit there means the pair exists; the global neighbour search is only the fallback
+            List<WordWithMeaning> sameWord = wordWithMeaningRepository.findAllByNormalizedWritingAndPartOfSpeech(
+                    Word.normalize(analysisResult.getWord()), analysisResult.getPartOfSpeech());
+            Optional<WordWithMeaning> existing = findBestExisting(combinedText, sameWord);
+            if (existing.isPresent()) {
+                expansion.report(currentDepth, ExtractionStage.MATCHED, null);
+                expansion.report(currentDepth, ExtractionStage.SAVED, existing.get());
+                return existing.get();
+            }
 
-            Word word = Word.builder()
-                    .writing(analysisResult.getWord())
-                    .build();
+            CompletableFuture<List<Meaning>> prefetched = prefetch.candidatesFor(combinedText);
+            List<Meaning> candidates = prefetched != null
+                    ? prefetched.join()
+                    : findCandidates(vector);
+            // Already scored above and rejected
+            Set<Long> rejected = sameWord.stream()
+                    .map(wwm -> wwm.getMeaning().getMeaningId())
+                    .collect(Collectors.toSet());
+            candidates = candidates.stream()
+                    .filter(candidate -> !rejected.contains(candidate.getMeaningId()))
+                    .toList();
 
             Meaning meaning = Meaning.builder()
                     .descriptionEn(analysisResult.getMeaningEN())
                     .descriptionTr(analysisResult.getMeaningTR())
-                    .embedding(vectorString)
                     .build();
 
-            boolean isMeaningFound = false;
+            Optional<Meaning> bestCandidate = findBestCandidate(combinedText, candidates);
 
-            for (Meaning candidate : candidates) {
-                if (isSynonym(combinedText, candidate.getDescriptionEn())) {
-                    isMeaningFound = true;
-                    meaning = candidate;
-                    break;
-                }
+            boolean isMeaningFound = bestCandidate.isPresent();
+            if (isMeaningFound) {
+                meaning = bestCandidate.get();
             }
+            expansion.report(currentDepth, ExtractionStage.MATCHED, null);
 
+            Word knownWord = sameWord.isEmpty() ? null : sameWord.get(0).getWord();
 
-            Optional<Word> foundWord = wordRepository.findOneByWriting(analysisResult.getWord());
+            WordWithMeaning wordWithMeaning = saveWordWithMeaning(analysisResult, knownWord, meaning, isMeaningFound, vector);
+            expansion.report(currentDepth, ExtractionStage.SAVED, wordWithMeaning);
 
-            word = foundWord.orElse(word);
+            if (currentDepth < MAX_RECURSION_DEPTH && analysisResult.getSynonyms() != null) {
+                for (var synonymData : analysisResult.getSynonyms()) {
+                    scheduleSynonym(synonymData, currentDepth, expansion);
+                }
+            }
 
-            var isWordFound = foundWord.isPresent();
+            return wordWithMeaning;
 
-            if(isMeaningFound && isWordFound)
-            {
-                var wordWithMeaning = wordWithMeaningRepository.findByWord_WordIdAndMeaning_MeaningId(foundWord.get().getWordId(), meaning.getMeaningId());
+        } catch (UpstreamUnavailableException e) {
+            // Load shedding: let the caller see the 503 instead of an empty result
+            throw e;
+        } catch (HttpClientErrorException.UnprocessableEntity e) {
+            log.warn("Python Validation Error: {}", e.getResponseBodyAsString());
+        } catch (Exception e) {
+            log.warn("Meaning extraction failed for '{}'", req.getSentence(), e);
+        }
+        return null;
+    }
 
-                if(wordWithMeaning.isPresent() && wordWithMeaning.get().getPartOfSpeech() == analysisResult.getPartOfSpeech())
-                {
-                    return wordWithMeaning.get();
-                }
-            }
+    // All inserts in one transaction: sequence ids let Hibernate defer them to a single flush.
+    // Word and pair are upserted rather than looked up first, so parallel pipelines adding the
+    // same lemma converge on one row each.
+    private WordWithMeaning saveWordWithMeaning(WordAnalysisResult analysisResult, Word knownWord,
+                                                Meaning meaning, boolean isMeaningFound, float[] vector) {
+        return transactionTemplate.execute(status -> {
+            Word word = knownWord != null ? knownWord : wordRepository.upsertByWriting(analysisResult.getWord());
 
             if (!isMeaningFound) {
-                meaning = meaningRepository.save(meaning);
-            }
-
-            if (!isWordFound) {
-                word = wordRepository.save(word);
+                meaningRepository.save(meaning);
+                meaningVectorIndex.added(meaningEmbeddingRepository.save(MeaningEmbedding.builder()
+                        .meaning(meaning)
+                        .embedding(vector)
+                        .build()));
             }
 
-            ExampleSentence exampleSentence = ExampleSentence.builder()
+            ExampleSentence exampleSentence = exampleSentenceRepository.saveAndFlush(ExampleSentence.builder()
                     .sentenceTr(analysisResult.getExampleSentenceTR())
                     .sentenceEn(analysisResult.getExampleSentence())
-                    .build();
-            exampleSentence = exampleSentenceRepository.save(exampleSentence);
+                    .build());
 
-            WordWithMeaning wordWithMeaning = WordWithMeaning.builder()
-                    .meaning(meaning)
-                    .word(word)
-                    .exampleSentence(exampleSentence)
-                    .partOfSpeech(analysisResult.getPartOfSpeech())
-                    .build();
+            WordWithMeaning wordWithMeaning = wordWithMeaningRepository.upsert(word.getWordId(), meaning.getMeaningId(),
+                    analysisResult.getPartOfSpeech(), exampleSentence.getExampleSentenceId());
+            // Someone else saved the pair first and their sentence was kept
+            if (!exampleSentence.getExampleSentenceId().equals(wordWithMeaning.getExampleSentence().getExampleSentenceId())) {
+                exampleSentenceRepository.delete(exampleSentence);
+            }
+            distractorPool.added(List.of(wordWithMeaning));
+            return wordWithMeaning;
+        });
+    }
 
-            wordWithMeaning = wordWithMeaningRepository.save(wordWithMeaning);
+    // Fails fast when an upstream the pipeline needs has its circuit open
+    public void checkAvailable() {
+        ollamaClient.checkAvailable();
+        pythonService.checkAvailable();
+    }
 
-            if (currentDepth < MAX_RECURSION_DEPTH && analysisResult.getSynonyms() != null) {
-                for (var synonymData : analysisResult.getSynonyms()) {
-                    processSynonym(synonymData, currentDepth);
-                }
+    /**
+     * Expands the synonyms of words that were resolved elsewhere (bulk import) in the background,
+     * sharing one visited set so overlapping synonyms are only analyzed once.
+     */
+    public void expandSynonyms(List<WordAnalysisResult> roots, ExtractionListener listener) {
+        SynonymExpansion expansion = new SynonymExpansion(maxConcurrentSynonymsPerRequest, synonymExecutor, listener);
+        roots.forEach(root -> expansion.visit(root.getWord()));
+        for (WordAnalysisResult root : roots) {
+            if (root.getSynonyms() != null) {
+                root.getSynonyms().forEach(synonymData -> scheduleSynonym(synonymData, 0, expansion));
             }
+        }
+        expansion.rootFinished(true);
+    }
 
-            return wordWithMeaning;
+    static String combinedText(WordAnalysisResult analysisResult) {
+        return analysisResult.getWord() + " : " + analysisResult.getMeaningEN();
+    }
 
-        } catch (HttpClientErrorException.UnprocessableEntity e) {
-            System.out.println("Python Validation Error: " + e.getResponseBodyAsString());
-        } catch (Exception e) {
-            e.printStackTrace();
+    private void scheduleSynonym(SynonymDto synonymData, int currentDepth, SynonymExpansion expansion) {
+        if (!expansion.visit(synonymData.getWord())) {
+            return;
         }
-        return null;
+
+        expansion.submit(synonymData.getWord(), () -> processSynonym(synonymData, currentDepth, expansion));
     }
 
-    private void processSynonym(SynonymDto synonymData, int currentDepth) {
+    private void processSynonym(SynonymDto synonymData, int currentDepth, SynonymExpansion expansion) {
         try {
             String synonymWord = synonymData.getWord();
             String sentence = synonymData.getExampleSentence();
@@ -160,52 +253,109 @@ public class MeaningExtractorService {
 
             ExtractMeaningRequest synonymRequest = new ExtractMeaningRequest(sentence, startIndex, synonymWord.length());
 
-            extractMeaningRecursive(synonymRequest, currentDepth + 1);
+            extractMeaningRecursive(synonymRequest, currentDepth + 1, expansion);
 
         } catch (Exception e) {
-            System.out.println(e.getMessage());
+            log.warn("Synonym '{}' could not be processed: {}", synonymData.getWord(), e.getMessage());
+        }
+    }
+
+    private float[] getVectorEmbedding(String text) {
+        try {
+            return embedAsync(text).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
         }
     }
 
-    private String getVectorEmbedding(String text) {
+    CompletableFuture<float[]> embedAsync(String text) {
+        return embeddingCache.getOrLoad(text, this::requestEmbedding);
+    }
+
+    private CompletableFuture<float[]> requestEmbedding(String text) {
+        if (embeddingBatcher.isEnabled()) {
+            return embeddingBatcher.submit(text);
+        }
+
         VectorRequest reqBody = new VectorRequest();
         reqBody.setText(text);
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        HttpEntity<VectorRequest> request = new HttpEntity<>(reqBody, headers);
-
-        String url = pythonServiceUrl + "/vectorize";
-        log.debug("Calling vectorize API: {}", url);
-        
-        ResponseEntity<VectorResponse> vectorResponse = restTemplate.postForEntity(
-                url,
-                request,
-                VectorResponse.class
-        );
-        return vectorResponse.getBody().vector().toString();
+        VectorResponse vectorResponse = pythonService.post("/vectorize", reqBody, VectorResponse.class);
+        return CompletableFuture.completedFuture(vectorResponse.vector());
     }
 
-    private boolean isSynonym(String newDesc, String candidateDesc) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
+    // The neighbour query only returns ids; meanings are loaded afterwards without their vectors
+    private List<Meaning> findCandidates(float[] vector) {
+        List<Long> ids = meaningVectorIndex.findClosest(vector, 5).stream()
+                .map(MeaningVectorSearch.Neighbour::meaningId)
+                .toList();
+        Map<Long, Meaning> byId = meaningRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Meaning::getMeaningId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    // existing all share a word and part of speech, so the unique index allows one row per meaning
+    private Optional<WordWithMeaning> findBestExisting(String newDesc, List<WordWithMeaning> existing) {
+        Map<Long, WordWithMeaning> byMeaning = existing.stream()
+                .collect(Collectors.toMap(wwm -> wwm.getMeaning().getMeaningId(), Function.identity(), (a, b) -> a));
 
-        HttpEntity<CrossEncodeRequest> request = new HttpEntity<>(new CrossEncodeRequest(newDesc, candidateDesc), headers);
+        return findBestCandidate(newDesc, existing.stream().map(WordWithMeaning::getMeaning).toList())
+                .map(meaning -> byMeaning.get(meaning.getMeaningId()));
+    }
+
+    // Scores every candidate in one /cross-encode-batch call and returns the best one above the threshold
+    private Optional<Meaning> findBestCandidate(String newDesc, List<Meaning> candidates) {
+        if (candidates.isEmpty()) {
+            return Optional.empty();
+        }
 
-        String url = pythonServiceUrl + "/cross-encode";
-        log.debug("Calling cross-encode API: {}", url);
-        
-        ResponseEntity<CrossEncodeResponse> response = restTemplate.postForEntity(
-                url,
-                request,
-                CrossEncodeResponse.class
+        double[] scores = scoreCandidates(newDesc, candidates.stream().map(Meaning::getDescriptionEn).toList());
+
+        int best = -1;
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] >= SYNONYM_THRESHOLD && (best == -1 || scores[i] > scores[best])) {
+                best = i;
+            }
+        }
+        return best == -1 ? Optional.empty() : Optional.of(candidates.get(best));
+    }
+
+    private double[] scoreCandidates(String newDesc, List<String> candidateDescs) {
+        return scorePairs(candidateDescs.stream()
+                .map(candidateDesc -> new CrossEncodeRequest(newDesc, candidateDesc))
+                .toList());
+    }
+
+    double[] scorePairs(List<CrossEncodeRequest> pairs) {
+        BatchCrossEncodeResponse response = pythonService.post(
+                "/cross-encode-batch",
+                new BatchCrossEncodeRequest(pairs),
+                BatchCrossEncodeResponse.class
         );
-        return response.getBody().score() >= 0.65;
+
+        double[] scores = response.scores();
+        if (scores.length != pairs.size()) {
+            throw new IllegalStateException("cross-encode-batch returned " + scores.length + " scores for " + pairs.size() + " pairs");
+        }
+        return scores;
+    }
+
+    WordAnalysisResult analyzeWord(ExtractMeaningRequest req) {
+        return analyzeWord(req, (name, value) -> {});
     }
 
-    private WordAnalysisResult analyzeWord(ExtractMeaningRequest req) {
+    // onField sees top-level string fields while the LLM is still generating (streaming mode only)
+    private WordAnalysisResult analyzeWord(ExtractMeaningRequest req, BiConsumer<String, String> onField) {
+        Optional<WordAnalysisResult> cached = analysisCache.get(req);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
         String prompt = generateAnalysisPrompt(req);
-        return sendPromptToLLM(prompt);
+        WordAnalysisResult result = sendPromptToLLM(prompt, onField);
+        analysisCache.put(req, result);
+        return result;
     }
 
     private String generateAnalysisPrompt(ExtractMeaningRequest req) {
@@ -260,42 +410,64 @@ public class MeaningExtractorService {
         );
     }
 
-    private WordAnalysisResult sendPromptToLLM(String prompt) {
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-
-        TextGenerationRequest reqBody = new TextGenerationRequest(
-                "llama3.1:8b",
-                prompt,
-                false
-        );
-
-        HttpEntity<TextGenerationRequest> request = new HttpEntity<>(reqBody, headers);
-
-        String url = ollamaUrl + "/api/generate";
-        log.debug("Calling Ollama API: {}", url);
-        
-        ResponseEntity<TextGenerationResponse> response = restTemplate.postForEntity(
-                url,
-                request,
-                TextGenerationResponse.class);
-
-        WordAnalysisResult result = parseLLMResponse(response.getBody().getResponse());
-
-        return result;
+    // Concurrency against Ollama is bounded by its upstream client's adaptive limit
+    private WordAnalysisResult sendPromptToLLM(String prompt, BiConsumer<String, String> onField) {
+        String response;
+        if (streamingEnabled) {
+            try {
+                response = ollamaClient.generateStreaming(prompt, onField).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                throw new IllegalStateException("Ollama stream failed", e.getCause());
+            }
+        } else {
+            response = ollamaClient.generate(prompt);
+        }
 
+        return parseLLMResponse(response);
     }
 
     private WordAnalysisResult parseLLMResponse(String llmResponse) {
         try {
             return objectMapper.readValue(llmResponse, WordAnalysisResult.class);
         } catch (Exception e) {
-            e.printStackTrace();
+            log.warn("Could not parse LLM response: {}", e.getMessage());
             return null;
         }
 
     }
 
+    /**
+     * Starts the embedding and nearest-neighbour lookup as soon as the streamed analysis
+     * has produced word and meaningEN, while synonyms and example sentences are still generating.
+     */
+    private final class CandidatePrefetch implements BiConsumer<String, String> {
+
+        private String word;
+        private String meaningEn;
+        private String text;
+        private CompletableFuture<List<Meaning>> candidates;
+
+        @Override
+        public synchronized void accept(String name, String value) {
+            switch (name) {
+                case "word" -> word = value;
+                case "meaningEN" -> meaningEn = value;
+                default -> {
+                    return;
+                }
+            }
+
+            if (candidates == null && word != null && meaningEn != null) {
+                text = word + " : " + meaningEn;
+                candidates = embedAsync(text).thenApplyAsync(
+                        MeaningExtractorService.this::findCandidates, ioExecutor);
+            }
+        }
 
+        // Only usable if the final analysis produced the same text the lookup was started with
+        synchronized CompletableFuture<List<Meaning>> candidatesFor(String combinedText) {
+            return combinedText.equals(text) ? candidates : null;
+        }
+    }
 }
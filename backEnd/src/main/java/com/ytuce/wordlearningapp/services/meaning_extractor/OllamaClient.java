@@ -0,0 +1,191 @@
+package com.ytuce.wordlearningapp.services.meaning_extractor;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ytuce.wordlearningapp.configuration.HttpClientConfig;
+import com.ytuce.wordlearningapp.configuration.UpstreamClient;
+import com.ytuce.wordlearningapp.services.meaning_extractor.requests.TextGenerationRequest;
+import com.ytuce.wordlearningapp.services.meaning_extractor.responses.TextGenerationResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Calls Ollama's /api/generate either in one blocking request or as an NDJSON token stream.
+ * In streaming mode the generated JSON is parsed incrementally and every top-level string
+ * field is handed to the caller as soon as it is complete.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OllamaClient {
+
+    private static final String METRIC_PREFIX = "meaning_extractor.llm";
+    private static final String MODEL = "llama3.1:8b";
+
+    private final MeterRegistry meterRegistry;
+    @Qualifier(HttpClientConfig.OLLAMA)
+    private final UpstreamClient ollama;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private HttpClient httpClient;
+    private Timer firstFieldLatency;
+    private Timer streamingLatency;
+    private Timer blockingLatency;
+
+    @PostConstruct
+    public void init() {
+        // Streaming responses are read through the JDK client, which keeps its own HTTP/1.1 keep-alive pool;
+        // both paths share the Ollama upstream's timeouts and bulkhead
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(ollama.getConnectTimeout())
+                .build();
+        firstFieldLatency = Timer.builder(METRIC_PREFIX + ".time_to_first_field").register(meterRegistry);
+        streamingLatency = Timer.builder(METRIC_PREFIX + ".latency").tag("mode", "streaming").register(meterRegistry);
+        blockingLatency = Timer.builder(METRIC_PREFIX + ".latency").tag("mode", "blocking").register(meterRegistry);
+    }
+
+    public void checkAvailable() {
+        ollama.checkAvailable();
+    }
+
+    public String generate(String prompt) {
+        long start = System.nanoTime();
+        try {
+            TextGenerationResponse response = ollama.post(
+                    "/api/generate",
+                    new TextGenerationRequest(MODEL, prompt, false),
+                    TextGenerationResponse.class);
+            return response.getResponse();
+        } finally {
+            blockingLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Streams the generation; onField is called from the HTTP client's thread for each
+     * top-level string field of the generated JSON. The future completes with the full text.
+     */
+    public CompletableFuture<String> generateStreaming(String prompt, BiConsumer<String, String> onField) {
+        String url = ollama.getBaseUrl() + "/api/generate";
+        log.debug("Calling Ollama API (streaming): {}", url);
+
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(ollama.getReadTimeout())
+                    .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(
+                            objectMapper.writeValueAsBytes(new TextGenerationRequest(MODEL, prompt, true))))
+                    .build();
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        UpstreamClient.Lease lease = ollama.acquire("/api/generate");
+        TokenStreamSubscriber subscriber = new TokenStreamSubscriber(onField, System.nanoTime());
+        subscriber.result.whenComplete((text, error) -> {
+            lease.release(error == null ? "success" : UpstreamClient.outcomeOf(error));
+            if (error != null) subscriber.cancel();
+        });
+
+        httpClient.sendAsync(request, responseInfo -> {
+                    if (responseInfo.statusCode() != 200) {
+                        subscriber.result.completeExceptionally(
+                                new RuntimeException("Ollama returned HTTP " + responseInfo.statusCode()));
+                        return HttpResponse.BodySubscribers.discarding();
+                    }
+                    return HttpResponse.BodySubscribers.fromLineSubscriber(subscriber);
+                })
+                .whenComplete((response, error) -> {
+                    if (error != null) subscriber.result.completeExceptionally(error);
+                });
+
+        return subscriber.result.orTimeout(ollama.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Each line is one NDJSON chunk: {"response": "<tokens>", "done": false}
+    private class TokenStreamSubscriber implements Flow.Subscriber<String> {
+
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        private final StringBuilder text = new StringBuilder();
+        private final StreamingJsonFieldParser fieldParser;
+        private final long startedAt;
+        private boolean firstFieldSeen;
+        private volatile Flow.Subscription subscription;
+
+        TokenStreamSubscriber(BiConsumer<String, String> onField, long startedAt) {
+            this.startedAt = startedAt;
+            this.fieldParser = new StreamingJsonFieldParser((name, value) -> {
+                if (!firstFieldSeen) {
+                    firstFieldSeen = true;
+                    firstFieldLatency.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+                try {
+                    onField.accept(name, value);
+                } catch (RuntimeException e) {
+                    log.debug("Streaming field callback for '{}' failed: {}", name, e.getMessage());
+                }
+            });
+        }
+
+        void cancel() {
+            Flow.Subscription current = subscription;
+            if (current != null) current.cancel();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (line.isBlank() || result.isDone()) return;
+
+            try {
+                JsonNode chunk = objectMapper.readTree(line);
+                if (chunk.hasNonNull("error")) {
+                    throw new RuntimeException("Ollama error: " + chunk.get("error").asText());
+                }
+
+                String fragment = chunk.path("response").asText("");
+                text.append(fragment);
+                fieldParser.feed(fragment);
+            } catch (Exception e) {
+                subscription.cancel();
+                result.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            if (result.isDone()) return;
+
+            fieldParser.finish();
+            streamingLatency.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            result.complete(text.toString());
+        }
+    }
+}
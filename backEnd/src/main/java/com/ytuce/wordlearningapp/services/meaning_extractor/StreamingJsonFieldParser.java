@@ -0,0 +1,84 @@
+package com.ytuce.wordlearningapp.services.meaning_extractor;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.BiConsumer;
+
+/**
+ * Feeds text fragments of a JSON object into Jackson's non-blocking parser and reports each
+ * top-level string field as soon as its closing quote arrives. Nested objects and arrays are skipped.
+ * Once the input stops looking like JSON the parser gives up silently; the caller still has
+ * the full text to parse at the end.
+ */
+class StreamingJsonFieldParser {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final BiConsumer<String, String> onField;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+
+    private int depth;
+    private String currentField;
+    private boolean broken;
+
+    StreamingJsonFieldParser(BiConsumer<String, String> onField) {
+        this.onField = onField;
+        try {
+            this.parser = JSON_FACTORY.createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create non-blocking JSON parser", e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    void feed(String fragment) {
+        if (broken || fragment.isEmpty()) return;
+
+        byte[] bytes = fragment.getBytes(StandardCharsets.UTF_8);
+        try {
+            feeder.feedInput(bytes, 0, bytes.length);
+            drain();
+        } catch (IOException e) {
+            broken = true;
+        }
+    }
+
+    void finish() {
+        if (broken) return;
+
+        feeder.endOfInput();
+        try {
+            drain();
+        } catch (IOException e) {
+            broken = true;
+        }
+    }
+
+    boolean isBroken() {
+        return broken;
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            switch (token) {
+                case START_OBJECT, START_ARRAY -> depth++;
+                case END_OBJECT, END_ARRAY -> depth--;
+                case FIELD_NAME -> {
+                    if (depth == 1) currentField = parser.currentName();
+                }
+                case VALUE_STRING -> {
+                    if (depth == 1 && currentField != null) onField.accept(currentField, parser.getText());
+                }
+                default -> {
+                }
+            }
+        }
+    }
+}
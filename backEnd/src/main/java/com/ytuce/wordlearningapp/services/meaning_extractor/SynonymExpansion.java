@@ -0,0 +1,103 @@
+package com.ytuce.wordlearningapp.services.meaning_extractor;
+
+import com.ytuce.wordlearningapp.models.WordWithMeaning;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * State shared by one add-word request and all the synonyms it expands into:
+ * the lemmas already visited in the tree, the request's concurrency budget and
+ * the number of words in the tree that are still being processed. Synonyms beyond
+ * the budget wait in the expansion's own queue and are handed to the shared executor
+ * only when a permit is free, so a wide expansion never holds more than its budget
+ * of executor slots.
+ */
+@Slf4j
+class SynonymExpansion {
+
+    private record Task(String word, Runnable work) {}
+
+    private final Set<String> visited = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final Queue<Task> waiting = new ConcurrentLinkedQueue<>();
+    private final Executor executor;
+    private final ExtractionListener listener;
+    // Starts at 1 for the root word
+    private final AtomicInteger outstanding = new AtomicInteger(1);
+    private volatile boolean rootSucceeded;
+
+    SynonymExpansion(int maxConcurrent, Executor executor, ExtractionListener listener) {
+        this.permits = new Semaphore(maxConcurrent);
+        this.executor = executor;
+        this.listener = listener;
+    }
+
+    // Returns false if the lemma was already seen in this expansion tree
+    boolean visit(String lemma) {
+        return lemma != null && visited.add(lemma.trim().toLowerCase(Locale.ROOT));
+    }
+
+    // Counts as scheduled right away; work runs once a permit is free
+    void submit(String word, Runnable work) {
+        synonymScheduled();
+        waiting.add(new Task(word, work));
+        drain();
+    }
+
+    private void drain() {
+        while (!waiting.isEmpty() && permits.tryAcquire()) {
+            Task task = waiting.poll();
+            if (task == null) {
+                // Taken by another thread; give the permit back and look again
+                permits.release();
+                continue;
+            }
+            try {
+                executor.execute(() -> run(task));
+            } catch (RuntimeException e) {
+                permits.release();
+                log.warn("Could not schedule synonym '{}': {}", task.word(), e.getMessage());
+                synonymFinished();
+            }
+        }
+    }
+
+    private void run(Task task) {
+        try {
+            task.work().run();
+        } finally {
+            permits.release();
+            synonymFinished();
+            drain();
+        }
+    }
+
+    void report(int depth, ExtractionStage stage, WordWithMeaning wordWithMeaning) {
+        if (depth == 0) {
+            listener.onStage(stage, wordWithMeaning);
+        }
+    }
+
+    private void synonymScheduled() {
+        outstanding.incrementAndGet();
+    }
+
+    void synonymFinished() {
+        if (outstanding.decrementAndGet() == 0 && rootSucceeded) {
+            listener.onStage(ExtractionStage.SYNONYMS_DONE, null);
+        }
+    }
+
+    void rootFinished(boolean succeeded) {
+        rootSucceeded = succeeded;
+        synonymFinished();
+    }
+}
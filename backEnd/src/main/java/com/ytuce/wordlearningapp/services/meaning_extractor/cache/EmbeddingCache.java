@@ -0,0 +1,142 @@
+package com.ytuce.wordlearningapp.services.meaning_extractor.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Content-addressed cache of embedding vectors, LRU-evicted by retained bytes.
+ * Concurrent requests for the same text share a single in-flight load.
+ * Returned arrays are shared between callers and must not be modified.
+ */
+@Component
+@RequiredArgsConstructor
+public class EmbeddingCache {
+
+    private static final String METRIC_PREFIX = "meaning_extractor.embedding_cache";
+    private static final long ENTRY_OVERHEAD_BYTES = 112;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${meaning-extractor.embedding-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${meaning-extractor.embedding-cache.max-bytes:33554432}")
+    private long maxBytes;
+
+    private final LinkedHashMap<String, float[]> vectors = new LinkedHashMap<>(1024, 0.75f, true);
+    private final Map<String, CompletableFuture<float[]>> inFlight = new ConcurrentHashMap<>();
+    private long currentBytes;
+
+    private Counter hits;
+    private Counter misses;
+    private Counter coalesced;
+    private Counter evictions;
+
+    @PostConstruct
+    public void init() {
+        hits = Counter.builder(METRIC_PREFIX + ".hits").register(meterRegistry);
+        misses = Counter.builder(METRIC_PREFIX + ".misses").register(meterRegistry);
+        coalesced = Counter.builder(METRIC_PREFIX + ".coalesced").register(meterRegistry);
+        evictions = Counter.builder(METRIC_PREFIX + ".evictions").register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".entries", this, EmbeddingCache::size).register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".bytes", this, EmbeddingCache::bytes).register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".in_flight", inFlight, Map::size).register(meterRegistry);
+    }
+
+    public CompletableFuture<float[]> getOrLoad(String text, Function<String, CompletableFuture<float[]>> loader) {
+        if (!enabled) {
+            return loader.apply(text);
+        }
+
+        String key = CacheKeys.hash(text);
+
+        float[] cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<float[]> promise = new CompletableFuture<>();
+        CompletableFuture<float[]> existing = inFlight.putIfAbsent(key, promise);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+
+        // Another caller may have finished loading between the lookup and the putIfAbsent
+        cached = lookup(key);
+        if (cached != null) {
+            inFlight.remove(key, promise);
+            hits.increment();
+            promise.complete(cached);
+            return promise;
+        }
+
+        misses.increment();
+        CompletableFuture<float[]> loading;
+        try {
+            loading = loader.apply(text);
+        } catch (RuntimeException e) {
+            loading = CompletableFuture.failedFuture(e);
+        }
+
+        loading.whenComplete((vector, error) -> {
+            if (error == null && vector != null) {
+                store(key, vector);
+            }
+            inFlight.remove(key, promise);
+            if (error != null) {
+                promise.completeExceptionally(error);
+            } else {
+                promise.complete(vector);
+            }
+        });
+        return promise;
+    }
+
+    public synchronized int size() {
+        return vectors.size();
+    }
+
+    public synchronized long bytes() {
+        return currentBytes;
+    }
+
+    private synchronized float[] lookup(String key) {
+        return vectors.get(key);
+    }
+
+    private synchronized void store(String key, float[] vector) {
+        long entryBytes = bytesOf(vector);
+        if (entryBytes > maxBytes) return;
+
+        float[] previous = vectors.put(key, vector);
+        if (previous != null) {
+            currentBytes -= bytesOf(previous);
+        }
+        currentBytes += entryBytes;
+
+        Iterator<float[]> eldest = vectors.values().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            currentBytes -= bytesOf(eldest.next());
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private static long bytesOf(float[] vector) {
+        return ENTRY_OVERHEAD_BYTES + 4L * vector.length;
+    }
+}
@@ -0,0 +1,223 @@
+package com.ytuce.wordlearningapp.services.meaning_extractor.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ytuce.wordlearningapp.models.WordAnalysisCacheEntry;
+import com.ytuce.wordlearningapp.repositories.WordAnalysisCacheEntryRepository;
+import com.ytuce.wordlearningapp.services.meaning_extractor.requests.ExtractMeaningRequest;
+import com.ytuce.wordlearningapp.services.meaning_extractor.responses.SynonymDto;
+import com.ytuce.wordlearningapp.services.meaning_extractor.responses.WordAnalysisResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * LRU + TTL cache of LLM analyses, keyed by the normalized target word and a
+ * fingerprint of the words around it. Bounded by an estimate of retained bytes,
+ * optionally backed by the word_analysis_cache table so it survives restarts.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WordAnalysisCache {
+
+    private static final String METRIC_PREFIX = "meaning_extractor.analysis_cache";
+    private static final long ENTRY_OVERHEAD_BYTES = 128;
+    private static final long SYNONYM_OVERHEAD_BYTES = 48;
+
+    private final WordAnalysisCacheEntryRepository entryRepository;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${meaning-extractor.analysis-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${meaning-extractor.analysis-cache.max-bytes:16777216}")
+    private long maxBytes;
+
+    @Value("${meaning-extractor.analysis-cache.ttl:24h}")
+    private Duration ttl;
+
+    // Number of words on each side of the target that make up the context fingerprint
+    @Value("${meaning-extractor.analysis-cache.context-window:4}")
+    private int contextWindow;
+
+    @Value("${meaning-extractor.analysis-cache.persist:false}")
+    private boolean persist;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long currentBytes;
+
+    private Counter memoryHits;
+    private Counter databaseHits;
+    private Counter misses;
+    private Counter sizeEvictions;
+    private Counter expiredEvictions;
+
+    private record Entry(WordAnalysisResult result, long bytes, Instant createdAt) {}
+
+    @PostConstruct
+    public void init() {
+        memoryHits = Counter.builder(METRIC_PREFIX + ".hits").tag("tier", "memory").register(meterRegistry);
+        databaseHits = Counter.builder(METRIC_PREFIX + ".hits").tag("tier", "database").register(meterRegistry);
+        misses = Counter.builder(METRIC_PREFIX + ".misses").register(meterRegistry);
+        sizeEvictions = Counter.builder(METRIC_PREFIX + ".evictions").tag("cause", "size").register(meterRegistry);
+        expiredEvictions = Counter.builder(METRIC_PREFIX + ".evictions").tag("cause", "expired").register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".entries", this, WordAnalysisCache::size).register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".bytes", this, WordAnalysisCache::bytes).register(meterRegistry);
+
+        if (enabled && persist) {
+            try {
+                int purged = entryRepository.deleteOlderThan(Instant.now().minus(ttl));
+                log.info("Analysis cache persistence enabled, purged {} expired rows", purged);
+            } catch (Exception e) {
+                log.warn("Could not purge expired analysis cache rows: {}", e.getMessage());
+            }
+        }
+    }
+
+    public Optional<WordAnalysisResult> get(ExtractMeaningRequest req) {
+        if (!enabled) return Optional.empty();
+
+        String key = keyOf(req);
+        Instant now = Instant.now();
+
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (!isExpired(entry.createdAt(), now)) {
+                    memoryHits.increment();
+                    return Optional.of(entry.result());
+                }
+                removeEntry(key);
+                expiredEvictions.increment();
+            }
+        }
+
+        if (persist) {
+            Optional<Entry> stored = loadPersisted(key, now);
+            if (stored.isPresent()) {
+                databaseHits.increment();
+                putInMemory(key, stored.get());
+                return Optional.of(stored.get().result());
+            }
+        }
+
+        misses.increment();
+        return Optional.empty();
+    }
+
+    public void put(ExtractMeaningRequest req, WordAnalysisResult result) {
+        if (!enabled || result == null) return;
+
+        String key = keyOf(req);
+        Instant now = Instant.now();
+        putInMemory(key, new Entry(result, estimateBytes(key, result), now));
+
+        if (persist) {
+            try {
+                entryRepository.save(WordAnalysisCacheEntry.builder()
+                        .cacheKey(key)
+                        .payload(objectMapper.writeValueAsString(result))
+                        .createdAt(now)
+                        .build());
+            } catch (Exception e) {
+                log.warn("Could not persist analysis cache entry {}: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long bytes() {
+        return currentBytes;
+    }
+
+    private synchronized void putInMemory(String key, Entry entry) {
+        if (entry.bytes() > maxBytes) return;
+
+        removeEntry(key);
+        entries.put(key, entry);
+        currentBytes += entry.bytes();
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            currentBytes -= eldest.next().getValue().bytes();
+            eldest.remove();
+            sizeEvictions.increment();
+        }
+    }
+
+    private void removeEntry(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            currentBytes -= removed.bytes();
+        }
+    }
+
+    private Optional<Entry> loadPersisted(String key, Instant now) {
+        try {
+            Optional<WordAnalysisCacheEntry> row = entryRepository.findById(key);
+            if (row.isEmpty() || isExpired(row.get().getCreatedAt(), now)) {
+                return Optional.empty();
+            }
+            WordAnalysisResult result = objectMapper.readValue(row.get().getPayload(), WordAnalysisResult.class);
+            return Optional.of(new Entry(result, estimateBytes(key, result), row.get().getCreatedAt()));
+        } catch (Exception e) {
+            log.warn("Could not read analysis cache entry {}: {}", key, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private boolean isExpired(Instant createdAt, Instant now) {
+        return createdAt == null || createdAt.plus(ttl).isBefore(now);
+    }
+
+    String keyOf(ExtractMeaningRequest req) {
+        String sentence = req.getSentence();
+        int start = req.getWordStartIndex();
+        int end = start + req.getWordLength();
+
+        String target = String.join(" ", tokenize(sentence.substring(start, end)));
+
+        List<String> before = tokenize(sentence.substring(0, start));
+        List<String> after = tokenize(sentence.substring(end));
+        String context = String.join(" ", before.subList(Math.max(0, before.size() - contextWindow), before.size()))
+                + " _ "
+                + String.join(" ", after.subList(0, Math.min(contextWindow, after.size())));
+
+        return target + ":" + CacheKeys.hash(context);
+    }
+
+    private static List<String> tokenize(String text) {
+        String normalized = text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}']+", " ").trim();
+        return normalized.isEmpty() ? List.of() : Arrays.asList(normalized.split(" "));
+    }
+
+    private static long estimateBytes(String key, WordAnalysisResult r) {
+        long bytes = ENTRY_OVERHEAD_BYTES + sizeOf(key)
+                + sizeOf(r.getWord()) + sizeOf(r.getPartOfSpeech())
+                + sizeOf(r.getMeaningEN()) + sizeOf(r.getMeaningTR())
+                + sizeOf(r.getExampleSentence()) + sizeOf(r.getExampleSentenceTR());
+        if (r.getSynonyms() != null) {
+            for (SynonymDto synonym : r.getSynonyms()) {
+                bytes += SYNONYM_OVERHEAD_BYTES + sizeOf(synonym.getWord()) + sizeOf(synonym.getExampleSentence());
+            }
+        }
+        return bytes;
+    }
+
+    private static long sizeOf(String s) {
+        return s == null ? 0 : 40 + 2L * s.length();
+    }
+}
@@ -0,0 +1,452 @@
+package com.ytuce.wordlearningapp.services.meaning_extractor.index;
+
+import com.ytuce.wordlearningapp.repositories.MeaningVectorSearch.Neighbour;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hierarchical navigable small world graph for cosine distance (Malkov &amp; Yashunin).
+ * Vectors are normalized on insert and kept in one flat float[], links in int arrays,
+ * so a search touches no boxed values. Searches run concurrently; inserts are exclusive.
+ */
+final class HnswGraph {
+
+    private static final int MAGIC = 0x484E5357; // "HNSW"
+    private static final int VERSION = 1;
+
+    private final int dimensions;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private float[] vectors;
+    private long[] ids;
+    // links[node][level] = {count, neighbour, neighbour, ...}
+    private int[][][] links;
+    private final Map<Long, Integer> nodeById = new HashMap<>();
+    private int size;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+    private long maxId = Long.MIN_VALUE;
+
+    HnswGraph(int dimensions, int m, int efConstruction) {
+        this.dimensions = dimensions;
+        this.m = m;
+        this.maxM0 = 2 * m;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+        this.vectors = new float[16 * dimensions];
+        this.ids = new long[16];
+        this.links = new int[16][][];
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long maxId() {
+        lock.readLock().lock();
+        try {
+            return maxId;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Zero vectors have no direction and are skipped; an id that is already present is ignored
+    void add(long id, float[] vector) {
+        float[] normalized = normalize(vector);
+        if (normalized == null) return;
+
+        lock.writeLock().lock();
+        try {
+            if (nodeById.containsKey(id)) return;
+
+            ensureCapacity(size + 1);
+            int node = size++;
+            System.arraycopy(normalized, 0, vectors, node * dimensions, dimensions);
+            ids[node] = id;
+            nodeById.put(id, node);
+            maxId = Math.max(maxId, id);
+
+            int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+            links[node] = new int[level + 1][];
+            for (int l = 0; l <= level; l++) {
+                links[node][l] = new int[(l == 0 ? maxM0 : m) + 1];
+            }
+
+            if (entryPoint < 0) {
+                entryPoint = node;
+                maxLevel = level;
+                return;
+            }
+
+            int current = entryPoint;
+            for (int l = maxLevel; l > level; l--) {
+                current = greedyClosest(normalized, current, l);
+            }
+            for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+                long[] found = searchLayer(normalized, current, efConstruction, l);
+                int[] selected = selectNeighbours(found, l == 0 ? maxM0 : m);
+                int[] own = links[node][l];
+                own[0] = selected.length;
+                System.arraycopy(selected, 0, own, 1, selected.length);
+                for (int neighbour : selected) {
+                    connect(neighbour, node, l);
+                }
+                current = nodeOf(found[0]);
+            }
+
+            if (level > maxLevel) {
+                maxLevel = level;
+                entryPoint = node;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    List<Neighbour> search(float[] query, int k, int ef) {
+        float[] normalized = normalize(query);
+        if (normalized == null) return List.of();
+
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0) return List.of();
+
+            int current = entryPoint;
+            for (int l = maxLevel; l > 0; l--) {
+                current = greedyClosest(normalized, current, l);
+            }
+            long[] found = searchLayer(normalized, current, Math.max(ef, k), 0);
+
+            List<Neighbour> result = new ArrayList<>(Math.min(k, found.length));
+            for (int i = 0; i < found.length && i < k; i++) {
+                result.add(new Neighbour(ids[nodeOf(found[i])], distanceOf(found[i])));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Stored (normalized) vector of a random node, or null when empty; used for consistency checks
+    float[] sampleVector(SplittableRandom sampler) {
+        lock.readLock().lock();
+        try {
+            if (size == 0) return null;
+            int node = sampler.nextInt(size);
+            return Arrays.copyOfRange(vectors, node * dimensions, (node + 1) * dimensions);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int greedyClosest(float[] query, int start, int level) {
+        int best = start;
+        float bestDistance = distance(query, best);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] neighbours = links[best][level];
+            for (int i = 1; i <= neighbours[0]; i++) {
+                float d = distance(query, neighbours[i]);
+                if (d < bestDistance) {
+                    bestDistance = d;
+                    best = neighbours[i];
+                    improved = true;
+                }
+            }
+        }
+        return best;
+    }
+
+    // Returns up to ef (distance, node) keys, nearest first
+    private long[] searchLayer(float[] query, int start, int ef, int level) {
+        long[] visited = new long[(size + 63) >>> 6];
+        LongHeap candidates = new LongHeap(ef + 1);
+        LongHeap results = new LongHeap(ef + 1); // holds negated keys, so the head is the farthest
+
+        long startKey = key(distance(query, start), start);
+        visited[start >>> 6] |= 1L << start;
+        candidates.push(startKey);
+        results.push(-startKey);
+
+        while (!candidates.isEmpty()) {
+            long closest = candidates.poll();
+            if (closest > -results.peek() && results.size() >= ef) break;
+
+            int[] neighbours = links[nodeOf(closest)][level];
+            for (int i = 1; i <= neighbours[0]; i++) {
+                int n = neighbours[i];
+                if ((visited[n >>> 6] & (1L << n)) != 0) continue;
+                visited[n >>> 6] |= 1L << n;
+
+                long k = key(distance(query, n), n);
+                if (results.size() < ef || k < -results.peek()) {
+                    candidates.push(k);
+                    results.push(-k);
+                    if (results.size() > ef) results.poll();
+                }
+            }
+        }
+
+        long[] sorted = new long[results.size()];
+        for (int i = sorted.length - 1; i >= 0; i--) {
+            sorted[i] = -results.poll();
+        }
+        return sorted;
+    }
+
+    // Neighbour selection heuristic: skip candidates that are closer to an already selected neighbour
+    // than to the base node, then top up with the skipped ones to keep the graph well connected
+    private int[] selectNeighbours(long[] sortedKeys, int max) {
+        int[] selected = new int[Math.min(max, sortedKeys.length)];
+        int count = 0;
+        int[] skipped = new int[sortedKeys.length];
+        int skippedCount = 0;
+
+        for (long k : sortedKeys) {
+            if (count == selected.length) break;
+            int candidate = nodeOf(k);
+            float toBase = distanceOf(k);
+            boolean diverse = true;
+            for (int i = 0; i < count; i++) {
+                if (distance(candidate, selected[i]) < toBase) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected[count++] = candidate;
+            } else {
+                skipped[skippedCount++] = candidate;
+            }
+        }
+        for (int i = 0; i < skippedCount && count < selected.length; i++) {
+            selected[count++] = skipped[i];
+        }
+        return count == selected.length ? selected : Arrays.copyOf(selected, count);
+    }
+
+    private void connect(int from, int to, int level) {
+        int[] neighbours = links[from][level];
+        int capacity = neighbours.length - 1;
+        if (neighbours[0] < capacity) {
+            neighbours[++neighbours[0]] = to;
+            return;
+        }
+
+        long[] keys = new long[capacity + 1];
+        for (int i = 0; i < capacity; i++) {
+            keys[i] = key(distance(from, neighbours[i + 1]), neighbours[i + 1]);
+        }
+        keys[capacity] = key(distance(from, to), to);
+        Arrays.sort(keys);
+
+        int[] selected = selectNeighbours(keys, capacity);
+        neighbours[0] = selected.length;
+        System.arraycopy(selected, 0, neighbours, 1, selected.length);
+    }
+
+    private float distance(float[] query, int node) {
+        return Math.max(0, 1 - dot(query, 0, vectors, node * dimensions));
+    }
+
+    private float distance(int a, int b) {
+        return Math.max(0, 1 - dot(vectors, a * dimensions, vectors, b * dimensions));
+    }
+
+    // Four independent sums; a single accumulator serializes on the add latency since float adds cannot be reordered
+    private float dot(float[] x, int offsetX, float[] y, int offsetY) {
+        float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i + 3 < dimensions; i += 4) {
+            s0 += x[offsetX + i] * y[offsetY + i];
+            s1 += x[offsetX + i + 1] * y[offsetY + i + 1];
+            s2 += x[offsetX + i + 2] * y[offsetY + i + 2];
+            s3 += x[offsetX + i + 3] * y[offsetY + i + 3];
+        }
+        for (; i < dimensions; i++) {
+            s0 += x[offsetX + i] * y[offsetY + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    // Distances are non-negative, so their float bits sort like the values; the node goes in the low half
+    private static long key(float distance, int node) {
+        return ((long) Float.floatToIntBits(distance) << 32) | node;
+    }
+
+    private static int nodeOf(long key) {
+        return (int) key;
+    }
+
+    private static float distanceOf(long key) {
+        return Float.intBitsToFloat((int) (key >>> 32));
+    }
+
+    private float[] normalize(float[] vector) {
+        if (vector == null || vector.length != dimensions) {
+            throw new IllegalArgumentException("Expected a vector of " + dimensions + " dimensions");
+        }
+        double norm = 0;
+        for (float v : vector) norm += v * v;
+        if (norm == 0) return null;
+
+        float scale = (float) (1 / Math.sqrt(norm));
+        float[] normalized = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) normalized[i] = vector[i] * scale;
+        return normalized;
+    }
+
+    private void ensureCapacity(int nodes) {
+        if (nodes <= ids.length) return;
+        int capacity = Math.max(nodes, ids.length * 2);
+        vectors = Arrays.copyOf(vectors, capacity * dimensions);
+        ids = Arrays.copyOf(ids, capacity);
+        links = Arrays.copyOf(links, capacity);
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(dimensions);
+            out.writeInt(m);
+            out.writeInt(size);
+            out.writeInt(entryPoint);
+            out.writeInt(maxLevel);
+            for (int node = 0; node < size; node++) {
+                out.writeLong(ids[node]);
+                for (int i = 0; i < dimensions; i++) {
+                    out.writeFloat(vectors[node * dimensions + i]);
+                }
+                out.writeInt(links[node].length);
+                for (int[] level : links[node]) {
+                    for (int i = 0; i <= level[0]; i++) {
+                        out.writeInt(level[i]);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Returns null when the snapshot was written with a different format, dimension or M.
+    // A truncated file ends in EOFException; counts or links that cannot be right in IOException.
+    static HnswGraph readFrom(DataInputStream in, int dimensions, int m, int efConstruction) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readInt() != dimensions || in.readInt() != m) {
+            return null;
+        }
+
+        HnswGraph graph = new HnswGraph(dimensions, m, efConstruction);
+        int size = in.readInt();
+        graph.entryPoint = in.readInt();
+        graph.maxLevel = in.readInt();
+        if (size < 0 || graph.entryPoint < -1 || graph.entryPoint >= size || (size > 0) != (graph.entryPoint >= 0)) {
+            throw new IOException("Corrupt snapshot header");
+        }
+        graph.ensureCapacity(size);
+        for (int node = 0; node < size; node++) {
+            long id = in.readLong();
+            graph.ids[node] = id;
+            graph.nodeById.put(id, node);
+            graph.maxId = Math.max(graph.maxId, id);
+            for (int i = 0; i < dimensions; i++) {
+                graph.vectors[node * dimensions + i] = in.readFloat();
+            }
+            int levels = in.readInt();
+            if (levels < 1 || levels > graph.maxLevel + 1) {
+                throw new IOException("Corrupt snapshot: node " + node + " has " + levels + " levels");
+            }
+            graph.links[node] = new int[levels][];
+            for (int l = 0; l < levels; l++) {
+                int[] level = new int[(l == 0 ? graph.maxM0 : m) + 1];
+                level[0] = in.readInt();
+                if (level[0] < 0 || level[0] >= level.length) {
+                    throw new IOException("Corrupt snapshot: node " + node + " has " + level[0] + " links");
+                }
+                for (int i = 1; i <= level[0]; i++) {
+                    level[i] = in.readInt();
+                    if (level[i] < 0 || level[i] >= size) {
+                        throw new IOException("Corrupt snapshot: link to node " + level[i] + " of " + size);
+                    }
+                }
+                graph.links[node][l] = level;
+            }
+        }
+        graph.size = size;
+        return graph;
+    }
+
+    // Binary min-heap of primitive longs
+    private static final class LongHeap {
+
+        private long[] heap;
+        private int size;
+
+        LongHeap(int capacity) {
+            heap = new long[Math.max(capacity, 2)];
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        long peek() {
+            return heap[0];
+        }
+
+        void push(long value) {
+            if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] <= value) break;
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = value;
+        }
+
+        long poll() {
+            long top = heap[0];
+            long last = heap[--size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && heap[child + 1] < heap[child]) child++;
+                if (heap[child] >= last) break;
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = last;
+            return top;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.ytuce.wordlearningapp.services.meaning_extractor.index;
+
+import com.ytuce.wordlearningapp.models.MeaningEmbedding;
+import com.ytuce.wordlearningapp.repositories.MeaningEmbeddingRepository;
+import com.ytuce.wordlearningapp.repositories.MeaningVectorSearch.Neighbour;
+import com.ytuce.wordlearningapp.repositories.MeaningVectorSearch.QueryNeighbour;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nearest-neighbour search over all meaning embeddings. When enabled, an in-process HNSW graph
+ * answers queries without a Postgres round-trip; it is built in the background at startup from a
+ * snapshot file plus whatever was added since, and kept current by write-through on new meanings.
+ * Until it is ready (or when disabled) queries go to pgvector.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MeaningVectorIndex {
+
+    private static final String METRIC_PREFIX = "meaning_extractor.vector_index";
+
+    private final MeaningEmbeddingRepository meaningEmbeddingRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${meaning-extractor.vector-index.enabled:false}")
+    private boolean enabled;
+
+    @Value("${meaning-extractor.vector-index.m:16}")
+    private int m;
+
+    @Value("${meaning-extractor.vector-index.ef-construction:100}")
+    private int efConstruction;
+
+    @Value("${meaning-extractor.vector-index.ef-search:64}")
+    private int efSearch;
+
+    @Value("${meaning-extractor.vector-index.snapshot:data/meaning-index.hnsw}")
+    private Path snapshotPath;
+
+    // Queries compared against pgvector after warm-up; 0 disables the check
+    @Value("${meaning-extractor.vector-index.verify-samples:50}")
+    private int verifySamples;
+
+    private volatile HnswGraph graph;
+    // Embeddings saved while the graph is being built; applied before it goes live
+    private final List<MeaningEmbedding> pending = new ArrayList<>();
+    private volatile double lastRecall = Double.NaN;
+    private boolean dirty;
+
+    private Timer memorySearches;
+    private Timer databaseSearches;
+
+    @PostConstruct
+    public void init() {
+        memorySearches = Timer.builder(METRIC_PREFIX + ".search").tag("source", "memory").register(meterRegistry);
+        databaseSearches = Timer.builder(METRIC_PREFIX + ".search").tag("source", "database").register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".size", this, index -> index.graph == null ? 0 : index.graph.size())
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".recall", this, index -> index.lastRecall).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) return;
+        Thread.ofPlatform().daemon().name("meaning-index-warmup").start(() -> {
+            try {
+                build();
+                verify();
+            } catch (RuntimeException e) {
+                log.warn("Meaning vector index could not be built, staying on pgvector: {}", e.getMessage());
+            }
+        });
+    }
+
+    public boolean isReady() {
+        return graph != null;
+    }
+
+    public List<Neighbour> findClosest(float[] vector, int limit) {
+        HnswGraph current = graph;
+        long start = System.nanoTime();
+        if (current != null) {
+            List<Neighbour> result = current.search(vector, limit, efSearch);
+            memorySearches.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        }
+        List<Neighbour> result = meaningEmbeddingRepository.findClosestByVector(vector, limit);
+        databaseSearches.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    public List<QueryNeighbour> findClosest(List<float[]> vectors, int limit) {
+        HnswGraph current = graph;
+        if (current == null) {
+            return meaningEmbeddingRepository.findClosestByVectors(vectors, limit);
+        }
+
+        List<QueryNeighbour> result = new ArrayList<>(vectors.size() * limit);
+        for (int i = 0; i < vectors.size(); i++) {
+            long start = System.nanoTime();
+            for (Neighbour neighbour : current.search(vectors.get(i), limit, efSearch)) {
+                result.add(new QueryNeighbour(i, neighbour.meaningId(), neighbour.distance()));
+            }
+            memorySearches.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return result;
+    }
+
+    // Write-through for newly saved embeddings; inside a transaction they are only indexed once it commits
+    public void added(Collection<MeaningEmbedding> embeddings) {
+        if (!enabled || embeddings.isEmpty()) return;
+
+        List<MeaningEmbedding> copy = List.copyOf(embeddings);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    index(copy);
+                }
+            });
+        } else {
+            index(copy);
+        }
+    }
+
+    public void added(MeaningEmbedding embedding) {
+        added(List.of(embedding));
+    }
+
+    private void index(List<MeaningEmbedding> embeddings) {
+        synchronized (pending) {
+            if (graph == null) {
+                pending.addAll(embeddings);
+                return;
+            }
+            dirty = true;
+        }
+        for (MeaningEmbedding embedding : embeddings) {
+            graph.add(embedding.getMeaningId(), embedding.getEmbedding());
+        }
+    }
+
+    private void build() {
+        long start = System.nanoTime();
+        HnswGraph built = loadSnapshot();
+        boolean fromSnapshot = built != null;
+        if (built == null) {
+            built = new HnswGraph(MeaningEmbedding.DIMENSIONS, m, efConstruction);
+        }
+
+        HnswGraph target = built;
+        int snapshotSize = target.size();
+        meaningEmbeddingRepository.forEachEmbedding(target.maxId(), (vector, meaningId) -> target.add(meaningId, vector));
+
+        // Ids are assigned in increasing order, so a count mismatch means rows were deleted or filled in below the snapshot
+        long expected = meaningEmbeddingRepository.countEmbeddings();
+        if (fromSnapshot && target.size() != expected) {
+            log.info("Meaning index snapshot is out of date ({} nodes, {} rows), rebuilding", target.size(), expected);
+            built = new HnswGraph(MeaningEmbedding.DIMENSIONS, m, efConstruction);
+            HnswGraph fresh = built;
+            meaningEmbeddingRepository.forEachEmbedding(Long.MIN_VALUE, (vector, meaningId) -> fresh.add(meaningId, vector));
+            fromSnapshot = false;
+        }
+
+        synchronized (pending) {
+            for (MeaningEmbedding embedding : pending) {
+                built.add(embedding.getMeaningId(), embedding.getEmbedding());
+            }
+            pending.clear();
+            dirty = !fromSnapshot || built.size() != snapshotSize;
+            graph = built;
+        }
+        log.info("Meaning vector index ready: {} meanings in {} ms ({})", built.size(),
+                (System.nanoTime() - start) / 1_000_000, fromSnapshot ? "from snapshot" : "from database");
+        saveSnapshot();
+    }
+
+    /**
+     * Compares the graph with pgvector for stored vectors picked at random and records the mean
+     * overlap of the top-5 ids as the recall gauge. Returns NaN when there is nothing to compare.
+     */
+    public double verify() {
+        HnswGraph current = graph;
+        if (current == null || verifySamples <= 0 || current.size() == 0) return Double.NaN;
+
+        SplittableRandom sampler = new SplittableRandom();
+        int k = 5;
+        double overlap = 0;
+        for (int i = 0; i < verifySamples; i++) {
+            float[] query = current.sampleVector(sampler);
+            Set<Long> expected = new HashSet<>();
+            meaningEmbeddingRepository.findClosestByVector(query, k).forEach(n -> expected.add(n.meaningId()));
+            long hits = current.search(query, k, efSearch).stream().filter(n -> expected.contains(n.meaningId())).count();
+            overlap += expected.isEmpty() ? 1 : (double) hits / expected.size();
+        }
+        lastRecall = overlap / verifySamples;
+        if (lastRecall < 0.9) {
+            log.warn("Meaning vector index agrees with pgvector on only {}% of top-{} results", Math.round(lastRecall * 100), k);
+        } else {
+            log.info("Meaning vector index recall@{} against pgvector: {}", k, String.format("%.3f", lastRecall));
+        }
+        return lastRecall;
+    }
+
+    @PreDestroy
+    public void saveSnapshot() {
+        HnswGraph current = graph;
+        synchronized (pending) {
+            if (current == null || !dirty) return;
+            dirty = false;
+        }
+
+        try {
+            Files.createDirectories(snapshotPath.toAbsolutePath().getParent());
+            Path temp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                current.writeTo(out);
+            }
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Saved meaning vector index snapshot ({} meanings) to {}", current.size(), snapshotPath);
+        } catch (IOException e) {
+            log.warn("Could not save meaning vector index snapshot to {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    private HnswGraph loadSnapshot() {
+        if (!Files.isRegularFile(snapshotPath)) return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath), 1 << 16))) {
+            HnswGraph loaded = HnswGraph.readFrom(in, MeaningEmbedding.DIMENSIONS, m, efConstruction);
+            if (loaded == null) {
+                log.info("Ignoring meaning vector index snapshot {} written with different settings", snapshotPath);
+            }
+            return loaded;
+        } catch (IOException e) {
+            log.warn("Could not read meaning vector index snapshot {}: {}", snapshotPath, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.ytuce.wordlearningapp.services.meaning_extractor.requests;
+
+import java.util.List;
+
+public record BatchCrossEncodeRequest(List<CrossEncodeRequest> pairs) {}
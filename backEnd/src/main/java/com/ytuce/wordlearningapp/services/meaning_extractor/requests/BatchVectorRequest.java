@@ -0,0 +1,12 @@
+package com.ytuce.wordlearningapp.services.meaning_extractor.requests;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BatchVectorRequest {
+    private List<String> texts;
+}
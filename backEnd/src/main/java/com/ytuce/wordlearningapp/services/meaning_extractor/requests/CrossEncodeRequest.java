@@ -0,0 +1,3 @@
+package com.ytuce.wordlearningapp.services.meaning_extractor.requests;
+
+public record CrossEncodeRequest(String sentence_a, String sentence_b) {}
@@ -0,0 +1,10 @@
+package com.ytuce.wordlearningapp.services.meaning_extractor.responses;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchVectorResponse {
+    private List<float[]> vectors;
+}
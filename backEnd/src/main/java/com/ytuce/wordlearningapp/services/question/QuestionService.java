@@ -4,12 +4,14 @@ import com.ytuce.wordlearningapp.models.*;
 import com.ytuce.wordlearningapp.repositories.QuestionRepository;
 import com.ytuce.wordlearningapp.repositories.UserAnswerRepository;
 import com.ytuce.wordlearningapp.repositories.UserRepository;
+import com.ytuce.wordlearningapp.repositories.WordMasteryRepository;
 import com.ytuce.wordlearningapp.repositories.WordRepository;
 import com.ytuce.wordlearningapp.services.question.requests.AnswerQuestionRequest;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -21,6 +23,7 @@ public class QuestionService {
     private final QuestionRepository questionRepository;
     private final UserAnswerRepository userAnswerRepository;
     private final WordRepository wordRepository;
+    private final WordMasteryRepository wordMasteryRepository;
 
     @Transactional
     public boolean answerQuestion(String email, AnswerQuestionRequest req) {
@@ -37,7 +40,7 @@ public class QuestionService {
 
         // 3. Fetch Word entities for the user's answer to save history
         // We only link words that actually exist in our DB.
-        List<Word> userSelectedWords = wordRepository.findAllByWritingIn(req.getWriting());
+        List<Word> userSelectedWords = wordRepository.findAllMatchingWritings(req.getWriting());
 
         // 4. Create and Save UserAnswer
         UserAnswer userAnswer = UserAnswer.builder()
@@ -48,6 +51,17 @@ public class QuestionService {
 
         userAnswerRepository.save(userAnswer);
 
+        // 5. Reschedule the word the question was generated for. Distractors and synonyms are not what was
+        // tested, and most are in none of the user's lists. Questions from before targets were stored move nothing.
+        WordWithMeaning target = question.getTargetWordWithMeaning();
+        if (target != null) {
+            List<Long> targetIds = List.of(target.getWordWithMeaningId());
+            wordMasteryRepository.insertMissing(user.getUserId(), targetIds);
+            Instant now = Instant.now();
+            wordMasteryRepository.findAllByUserAndWordsForUpdate(user.getUserId(), targetIds)
+                    .forEach(mastery -> mastery.recordAnswer(isCorrect, now));
+        }
+
         return isCorrect;
     }
 
@@ -56,10 +70,9 @@ public class QuestionService {
             return false;
         }
 
-        // Normalize User Input (Trim & Lowercase)
+        // Normalize User Input (Trim & Lowercase, same rules as word lookups)
         Set<String> userWords = userWriting.stream()
-                .map(String::trim)
-                .map(String::toLowerCase)
+                .map(Word::normalize)
                 .collect(Collectors.toSet());
 
         // Retrieve Correct Answers from DB
@@ -69,7 +82,7 @@ public class QuestionService {
         // We flatten all words from all correct Answer entities into a single Set
         Set<String> correctWords = correctAnswers.stream()
                 .flatMap(a -> a.getAnswerWords().stream())
-                .map(w -> w.getWriting().trim().toLowerCase())
+                .map(w -> Word.normalize(w.getWriting()))
                 .collect(Collectors.toSet());
 
         // Logic per Question Type
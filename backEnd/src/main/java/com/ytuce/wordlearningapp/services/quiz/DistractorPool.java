@@ -0,0 +1,273 @@
+package com.ytuce.wordlearningapp.services.quiz;
+
+import com.ytuce.wordlearningapp.models.WordWithMeaning;
+import com.ytuce.wordlearningapp.repositories.WordWithMeaningRepository;
+import com.ytuce.wordlearningapp.repositories.WordWithMeaningScan.DistractorRow;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.random.RandomGenerator;
+
+/**
+ * The ids of every word meaning, held in primitive arrays grouped by part of speech, so random
+ * distractors can be drawn without a query. Readers take the current snapshot from a volatile field
+ * and never lock; new word meanings are merged into a copy that is then swapped in. The whole pool
+ * is reloaded in the background once it is older than the refresh interval, which picks up rows
+ * written by other instances and rows that were deleted.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DistractorPool {
+
+    private static final String METRIC_PREFIX = "quiz.distractor_pool";
+
+    private final WordWithMeaningRepository wordWithMeaningRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${quiz.distractor-pool.enabled:true}")
+    private boolean enabled;
+
+    @Value("${quiz.distractor-pool.refresh:10m}")
+    private Duration refresh;
+
+    private volatile Snapshot snapshot;
+    private volatile long loadedAtNanos;
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    // Rows added while a reload is running; merged into the reloaded snapshot so none are lost
+    private final List<DistractorRow> pending = new ArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder(METRIC_PREFIX + ".size", this, pool -> pool.snapshot == null ? 0 : pool.snapshot.size())
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".bytes", this, pool -> pool.snapshot == null ? 0 : pool.snapshot.bytes())
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (enabled) reloadInBackground();
+    }
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * Ids of up to count word meanings that share neither the target's meaning nor its word, nor a
+     * word or meaning with each other. Same part of speech as the target where possible.
+     */
+    public long[] sample(WordWithMeaning target, int count) {
+        Snapshot current = snapshot;
+        if (current == null) return new long[0];
+        if (System.nanoTime() - loadedAtNanos > refresh.toNanos()) {
+            reloadInBackground();
+        }
+        return current.sample(target.getMeaning().getMeaningId(), target.getWord().getWordId(),
+                target.getPartOfSpeech(), count, ThreadLocalRandom.current());
+    }
+
+    // Write-through for new word meanings; inside a transaction they are only added once it commits
+    public void added(Collection<WordWithMeaning> wordMeanings) {
+        if (!enabled || wordMeanings.isEmpty()) return;
+
+        List<DistractorRow> rows = wordMeanings.stream()
+                .filter(wwm -> wwm.getWord() != null && wwm.getMeaning() != null)
+                .map(wwm -> new DistractorRow(wwm.getWordWithMeaningId(), wwm.getMeaning().getMeaningId(),
+                        wwm.getWord().getWordId(), wwm.getPartOfSpeech()))
+                .toList();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    merge(rows);
+                }
+            });
+        } else {
+            merge(rows);
+        }
+    }
+
+    private void merge(List<DistractorRow> rows) {
+        synchronized (pending) {
+            if (reloading.get()) {
+                pending.addAll(rows);
+            }
+            if (snapshot != null) {
+                snapshot = snapshot.with(rows);
+            }
+        }
+    }
+
+    private void reloadInBackground() {
+        if (!reloading.compareAndSet(false, true)) return;
+        Thread.ofPlatform().daemon().name("distractor-pool-reload").start(() -> {
+            try {
+                reload();
+            } catch (RuntimeException e) {
+                log.warn("Distractor pool could not be loaded: {}", e.getMessage());
+            } finally {
+                reloading.set(false);
+            }
+        });
+    }
+
+    private void reload() {
+        long start = System.nanoTime();
+        List<DistractorRow> rows = new ArrayList<>();
+        wordWithMeaningRepository.forEachDistractorRow(rows::add);
+        Snapshot loaded = Snapshot.EMPTY.with(rows);
+
+        synchronized (pending) {
+            snapshot = loaded.with(pending);
+            pending.clear();
+            loadedAtNanos = System.nanoTime();
+        }
+        log.info("Distractor pool loaded: {} word meanings, {} KB, in {} ms", loaded.size(), loaded.bytes() / 1024,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Immutable. Row i is (ids[i], meaningIds[i], wordIds[i]); the rows of part of speech
+     * partsOfSpeech[g] are [groupStart[g], groupStart[g + 1]), sorted by id.
+     */
+    static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(new String[0], new int[]{0}, new long[0], new long[0], new long[0]);
+
+        // Draws per distractor before giving up on a group that is mostly excluded rows
+        private static final int ATTEMPTS_PER_DISTRACTOR = 8;
+
+        private final String[] partsOfSpeech;
+        private final int[] groupStart;
+        private final long[] ids;
+        private final long[] meaningIds;
+        private final long[] wordIds;
+
+        private Snapshot(String[] partsOfSpeech, int[] groupStart, long[] ids, long[] meaningIds, long[] wordIds) {
+            this.partsOfSpeech = partsOfSpeech;
+            this.groupStart = groupStart;
+            this.ids = ids;
+            this.meaningIds = meaningIds;
+            this.wordIds = wordIds;
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        // The arrays only; the part of speech strings are a handful of shared constants
+        long bytes() {
+            return 3L * 8 * ids.length + 4L * groupStart.length;
+        }
+
+        static String group(String partOfSpeech) {
+            return partOfSpeech == null ? "" : partOfSpeech.trim().toLowerCase(Locale.ROOT);
+        }
+
+        // Copy with rows merged in; a row whose id is already present replaces it, whichever group it was in
+        Snapshot with(List<DistractorRow> rows) {
+            if (rows.isEmpty()) return this;
+
+            // Same id twice in rows: the later one wins
+            Map<Long, DistractorRow> byId = new LinkedHashMap<>();
+            rows.forEach(row -> byId.put(row.wordWithMeaningId(), row));
+            long[] replaced = byId.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+
+            Map<String, List<DistractorRow>> added = new TreeMap<>();
+            for (DistractorRow row : byId.values()) {
+                added.computeIfAbsent(group(row.partOfSpeech()), k -> new ArrayList<>()).add(row);
+            }
+            added.values().forEach(list -> list.sort(Comparator.comparingLong(DistractorRow::wordWithMeaningId)));
+
+            TreeSet<String> groups = new TreeSet<>(Arrays.asList(partsOfSpeech));
+            groups.addAll(added.keySet());
+            String[] newGroups = groups.toArray(String[]::new);
+            int[] newStart = new int[newGroups.length + 1];
+            long[] newIds = new long[ids.length + byId.size()];
+            long[] newMeaningIds = new long[newIds.length];
+            long[] newWordIds = new long[newIds.length];
+
+            int n = 0;
+            for (int g = 0; g < newGroups.length; g++) {
+                newStart[g] = n;
+                int old = Arrays.binarySearch(partsOfSpeech, newGroups[g]);
+                int i = old >= 0 ? groupStart[old] : 0;
+                int end = old >= 0 ? groupStart[old + 1] : 0;
+                List<DistractorRow> incoming = added.getOrDefault(newGroups[g], List.of());
+                int j = 0;
+                while (i < end || j < incoming.size()) {
+                    if (i < end && Arrays.binarySearch(replaced, ids[i]) >= 0) {
+                        i++;
+                        continue;
+                    }
+                    if (j == incoming.size() || (i < end && ids[i] < incoming.get(j).wordWithMeaningId())) {
+                        newIds[n] = ids[i];
+                        newMeaningIds[n] = meaningIds[i];
+                        newWordIds[n] = wordIds[i];
+                        i++;
+                    } else {
+                        DistractorRow row = incoming.get(j++);
+                        newIds[n] = row.wordWithMeaningId();
+                        newMeaningIds[n] = row.meaningId();
+                        newWordIds[n] = row.wordId();
+                    }
+                    n++;
+                }
+            }
+            newStart[newGroups.length] = n;
+            return new Snapshot(newGroups, newStart,
+                    Arrays.copyOf(newIds, n), Arrays.copyOf(newMeaningIds, n), Arrays.copyOf(newWordIds, n));
+        }
+
+        // Allocates nothing but the result (and a trimmed copy of it when too few rows qualify)
+        long[] sample(long meaningId, long wordId, String partOfSpeech, int count, RandomGenerator random) {
+            // Holds row indexes while drawing, ids once done
+            long[] picked = new long[count];
+            int found = 0;
+            int g = Arrays.binarySearch(partsOfSpeech, group(partOfSpeech));
+            if (g >= 0) {
+                found = draw(groupStart[g], groupStart[g + 1], meaningId, wordId, picked, found, random);
+            }
+            if (found < count) {
+                found = draw(0, ids.length, meaningId, wordId, picked, found, random);
+            }
+
+            for (int p = 0; p < found; p++) {
+                picked[p] = ids[(int) picked[p]];
+            }
+            return found == count ? picked : Arrays.copyOf(picked, found);
+        }
+
+        private int draw(int from, int to, long meaningId, long wordId, long[] picked, int found, RandomGenerator random) {
+            if (to <= from) return found;
+            int attempts = (picked.length - found) * ATTEMPTS_PER_DISTRACTOR;
+            for (int attempt = 0; attempt < attempts && found < picked.length; attempt++) {
+                int i = random.nextInt(from, to);
+                if (meaningIds[i] == meaningId || wordIds[i] == wordId) continue;
+
+                boolean clash = false;
+                for (int p = 0; p < found && !clash; p++) {
+                    int other = (int) picked[p];
+                    clash = meaningIds[other] == meaningIds[i] || wordIds[other] == wordIds[i];
+                }
+                if (!clash) picked[found++] = i;
+            }
+            return found;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.ytuce.wordlearningapp.services.quiz;
+
+import com.ytuce.wordlearningapp.models.MeaningEmbedding;
+import com.ytuce.wordlearningapp.models.Word;
+import com.ytuce.wordlearningapp.models.WordWithMeaning;
+import com.ytuce.wordlearningapp.repositories.MeaningEmbeddingRepository;
+import com.ytuce.wordlearningapp.repositories.MeaningVectorSearch.Neighbour;
+import com.ytuce.wordlearningapp.repositories.WordWithMeaningRepository;
+import com.ytuce.wordlearningapp.services.meaning_extractor.index.MeaningVectorIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks wrong options for multiple-choice questions without loading the whole word_with_meaning table.
+ * Meanings close to the target in embedding space, but not so close that they mean the same, make the
+ * harder distractors and are tried first; the rest is drawn at random from the in-memory DistractorPool,
+ * or by primary key probes until it is loaded.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DistractorSampler {
+
+    // Random probes per distractor still needed; probes can land on the same row
+    private static final int PROBES_PER_DISTRACTOR = 3;
+
+    private final WordWithMeaningRepository wordWithMeaningRepository;
+    private final MeaningEmbeddingRepository meaningEmbeddingRepository;
+    private final MeaningVectorIndex meaningVectorIndex;
+    private final DistractorPool distractorPool;
+
+    @Value("${quiz.distractors.semantic:true}")
+    private boolean semantic;
+
+    // Nearest meanings the semantic distractors are drawn from
+    @Value("${quiz.distractors.neighbours:20}")
+    private int neighbours;
+
+    // Neighbours closer than this (cosine distance) are near-synonyms of the target, which would make a
+    // second correct answer rather than a hard wrong one
+    @Value("${quiz.distractors.min-distance:0.2}")
+    private double minDistance;
+
+    /**
+     * Up to count word meanings that neither share the target's meaning nor its writing, with distinct
+     * writings. Fewer come back only when the dictionary has too few other words.
+     */
+    public List<WordWithMeaning> sample(WordWithMeaning target, int count) {
+        Long meaningId = target.getMeaning().getMeaningId();
+        String writing = Word.normalize(target.getWord().getWriting());
+
+        Map<String, WordWithMeaning> picked = new LinkedHashMap<>();
+        if (semantic) {
+            addShuffled(picked, nearMeanings(meaningId), meaningId, writing, count);
+        }
+        if (picked.size() < count) {
+            // The pool only excludes the target, so ask for enough to cover clashes with the semantic picks
+            List<WordWithMeaning> random = distractorPool.isReady()
+                    ? pooledRows(target, count)
+                    : randomRows(meaningId, writing, count - picked.size());
+            addShuffled(picked, random, meaningId, writing, count);
+        }
+        return new ArrayList<>(picked.values());
+    }
+
+    private List<WordWithMeaning> nearMeanings(Long meaningId) {
+        float[] vector = meaningEmbeddingRepository.findById(meaningId)
+                .map(MeaningEmbedding::getEmbedding)
+                .orElse(null);
+        if (vector == null) return List.of();
+
+        List<Long> ids = meaningVectorIndex.findClosest(vector, neighbours + 1).stream()
+                .filter(neighbour -> neighbour.distance() >= minDistance)
+                .map(Neighbour::meaningId)
+                .filter(id -> !id.equals(meaningId))
+                .toList();
+        return ids.isEmpty() ? List.of() : wordWithMeaningRepository.findAllByMeaningIds(ids);
+    }
+
+    private List<WordWithMeaning> pooledRows(WordWithMeaning target, int count) {
+        long[] ids = distractorPool.sample(target, count);
+        return ids.length == 0 ? List.of()
+                : wordWithMeaningRepository.findAllWithDetailsByWordWithMeaningIdIn(Arrays.stream(ids).boxed().toList());
+    }
+
+    private List<WordWithMeaning> randomRows(Long meaningId, String writing, int count) {
+        Long maxId = wordWithMeaningRepository.findMaxId();
+        if (maxId == null) return List.of();
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Long[] starts = new Long[count * PROBES_PER_DISTRACTOR];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = random.nextLong(1, maxId + 1);
+        }
+        List<Long> ids = wordWithMeaningRepository.sampleFrom(starts, meaningId, writing);
+        return ids.isEmpty() ? List.of() : wordWithMeaningRepository.findAllWithDetailsByWordWithMeaningIdIn(ids);
+    }
+
+    private static void addShuffled(Map<String, WordWithMeaning> picked, List<WordWithMeaning> candidates,
+                                    Long meaningId, String writing, int count) {
+        List<WordWithMeaning> shuffled = new ArrayList<>(candidates);
+        Collections.shuffle(shuffled);
+        for (WordWithMeaning candidate : shuffled) {
+            if (picked.size() >= count) return;
+            String candidateWriting = Word.normalize(candidate.getWord().getWriting());
+            if (candidate.getMeaning().getMeaningId().equals(meaningId) || candidateWriting.equals(writing)) continue;
+            picked.putIfAbsent(candidateWriting, candidate);
+        }
+    }
+}
@@ -11,7 +11,10 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.*;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,15 +26,26 @@ public class QuizService {
     private final QuizRepository quizRepository;
     private final QuestionRepository questionRepository;
     private final AnswerRepository answerRepository;
-    private final UserAnswerRepository userAnswerRepository;
-    private final WordWithMeaningRepository wordWithMeaningRepository;
+    private final WordMasteryRepository wordMasteryRepository;
+    private final MeaningRepository meaningRepository;
+    private final DistractorSampler distractorSampler;
 
     private final int QUESTION_COUNT = 20;
 
+    // One generator per quiz; every question splits off its own, so which type a question gets depends only
+    // on its position and not on how many draws earlier questions used. Tests set a seeded source.
+    private Supplier<RandomGenerator.SplittableGenerator> randomSource = SplittableRandom::new;
+
+    void setRandomSource(Supplier<RandomGenerator.SplittableGenerator> randomSource) {
+        this.randomSource = randomSource;
+    }
+
     @Transactional
     public QuizDto generateQuiz(String email, GenerateQuizRequest req) {
         User user = userRepository.findByEmail(email).orElseThrow();
-        WordList wordList = wordListRepository.findById(req.getWordListId()).orElseThrow();
+        // Bounded number of queries whatever the list size: the list with each word's details, then the synonyms
+        // (other word meanings of the same meanings) that multiple-choice and matching questions look at
+        WordList wordList = wordListRepository.findWithWordsByWordListId(req.getWordListId()).orElseThrow();
 
         if(wordList.getWordWithMeaningList().size() < 8)
         {
@@ -39,16 +53,19 @@ public class QuizService {
         }
 
         List<WordWithMeaning> words = new ArrayList<>(wordList.getWordWithMeaningList());
-        sortByScore(user, words);
-
-        List<WordWithMeaning> selectedWords = selectWordsForQuiz(words);
+        meaningRepository.findAllWithWordMeaningsByMeaningIdIn(words.stream()
+                .map(w -> w.getMeaning().getMeaningId())
+                .distinct()
+                .toList());
+        List<WordWithMeaning> selectedWords = selectWordsForQuiz(user, wordList, words);
 
         Quiz quiz = Quiz.builder().wordList(wordList).build();
         quizRepository.save(quiz);
 
+        RandomGenerator.SplittableGenerator random = randomSource.get();
         List<Question> questions = new ArrayList<>();
         for (int i = 0; i < selectedWords.size(); i++) {
-            Question q = createQuestionForWord(selectedWords.get(i), words);
+            Question q = createQuestionForWord(selectedWords.get(i), words, random.split());
             q.setQuiz(quiz);
             questions.add(q);
         }
@@ -58,26 +75,54 @@ public class QuizService {
         return mapToDto(quiz, questions);
     }
 
-    private List<WordWithMeaning> selectWordsForQuiz(List<WordWithMeaning> sortedList) {
-        int limit = Math.min(QUESTION_COUNT, sortedList.size());
-        return sortedList.subList(0, limit);
+    // Words due for review first, most overdue first. If that is not enough, words the user has never
+    // answered, then the ones due soonest.
+    private List<WordWithMeaning> selectWordsForQuiz(User user, WordList wordList, List<WordWithMeaning> words) {
+        int limit = Math.min(QUESTION_COUNT, words.size());
+        Map<Long, WordWithMeaning> byId = new LinkedHashMap<>();
+        words.forEach(w -> byId.putIfAbsent(w.getWordWithMeaningId(), w));
+
+        Set<Long> selected = new LinkedHashSet<>();
+        Instant now = Instant.now();
+        addWithin(selected, byId, limit,
+                wordMasteryRepository.findDueWordIds(user.getUserId(), wordList.getWordListId(), now, limit));
+        if (selected.size() < limit) {
+            addWithin(selected, byId, limit,
+                    wordMasteryRepository.findUnseenWordIds(user.getUserId(), wordList.getWordListId(), limit - selected.size()));
+        }
+        if (selected.size() < limit) {
+            addWithin(selected, byId, limit,
+                    wordMasteryRepository.findNextDueWordIds(user.getUserId(), wordList.getWordListId(), now, limit - selected.size()));
+        }
+        return selected.stream().map(byId::get).toList();
+    }
+
+    private static void addWithin(Set<Long> selected, Map<Long, WordWithMeaning> byId, int limit, List<Long> ids) {
+        for (Long id : ids) {
+            if (selected.size() >= limit) return;
+            if (byId.containsKey(id)) selected.add(id);
+        }
     }
 
-    private Question createQuestionForWord(WordWithMeaning target, List<WordWithMeaning> pool) {
-        double rand = Math.random();
+    private Question createQuestionForWord(WordWithMeaning target, List<WordWithMeaning> pool, RandomGenerator random) {
+        double rand = random.nextDouble();
 
         Question q = null;
 
         if (pool.size() >= 8 && rand < 0.2) {
-            q = generateSynonymMatching(pool);
+            q = generateSynonymMatching(target, pool, random);
         } else if (rand < 0.5) {
-            q = generateMultipleChoice(target, pool);
+            q = generateMultipleChoice(target, random);
         }
 
-        return q == null ? generateFillInBlank(target) : q;
+        if (q == null) {
+            q = generateFillInBlank(target);
+        }
+        q.setTargetWordWithMeaning(target);
+        return q;
     }
 
-    private Question generateMultipleChoice(WordWithMeaning target, List<WordWithMeaning> pool) {
+    private Question generateMultipleChoice(WordWithMeaning target, RandomGenerator random) {
         List<WordWithMeaning> options = new ArrayList<>();
         List<Answer> correctAnswers = new ArrayList<>();
 
@@ -85,9 +130,9 @@ public class QuizService {
                 .filter(wm -> !Objects.equals(wm.getWord().getWriting(), target.getWord().getWriting()))
                 .toList());
 
-        int correctAnswerCount = (int) (Math.random() * 2 + 1);
+        int correctAnswerCount = random.nextInt(1, 3);
 
-        Collections.shuffle(synonyms);
+        Collections.shuffle(synonyms, random);
         List<WordWithMeaning> correctWords = synonyms.stream()
                 .limit(correctAnswerCount)
                 .toList();
@@ -106,19 +151,13 @@ public class QuizService {
                     .build());
         }
 
-        List<WordWithMeaning> distractors = wordWithMeaningRepository.findAll();
-        distractors.removeIf(w ->
-                w.getMeaning().getMeaningId().equals(target.getMeaning().getMeaningId())
-                || w.getWord().getWriting().equals(target.getWord().getWriting())
-        );
-        Collections.shuffle(distractors);
-
-        for (int i = correctAnswerCount; i < 4; i++) {
-            var d = distractors.get(i);
-            options.add(d);
-            distractors.remove(d);
+        List<WordWithMeaning> distractors = distractorSampler.sample(target, 4 - correctAnswerCount);
+        if (distractors.size() < 4 - correctAnswerCount) {
+            return null;
         }
-        Collections.shuffle(options);
+
+        options.addAll(distractors);
+        Collections.shuffle(options, random);
 
         return Question.builder()
                 .questionType(QuestionType.MULTIPLE_CHOICE)
@@ -142,11 +181,19 @@ public class QuizService {
                 .build();
     }
 
-    private Question generateSynonymMatching(List<WordWithMeaning> pool) {
+    // The target makes the first pair, so answering the question says something about it; null if it has no synonym
+    private Question generateSynonymMatching(WordWithMeaning target, List<WordWithMeaning> pool, RandomGenerator random) {
+        if (target.getMeaning().getWordMeanings().stream()
+                .noneMatch(wm -> !Objects.equals(wm.getWord().getWriting(), target.getWord().getWriting()))) {
+            return null;
+        }
+
         List<Answer> answers = new ArrayList<>();
         List<WordWithMeaning> options = new ArrayList<>();
         List<WordWithMeaning> shuffled = new ArrayList<>(pool);
-        Collections.shuffle(shuffled);
+        Collections.shuffle(shuffled, random);
+        shuffled.removeIf(w -> w == target);
+        shuffled.add(0, target);
 
         for(int i = 0; i < 8; i+=2)
         {
@@ -176,36 +223,18 @@ public class QuizService {
                 .build();
     }
 
+    // Two saveAll calls; with sequence ids Hibernate sends each table's inserts as JDBC batches at flush
     private void saveQuestionsAndAnswers(List<Question> questions) {
+        questionRepository.saveAll(questions);
+
+        List<Answer> answers = new ArrayList<>();
         for (Question q : questions) {
-            questionRepository.save(q);
             for (Answer a : q.getCorrectAnswers()) {
                 a.setQuestion(q);
-                answerRepository.save(a);
+                answers.add(a);
             }
         }
-    }
-
-    private void sortByScore(User user, List<WordWithMeaning> list) {
-        Map<Long, Integer> scores = new HashMap<>();
-        list.forEach(w -> scores.put(w.getWordWithMeaningId(), 0));
-
-        List<UserAnswer> history = userAnswerRepository.findAll();
-
-        for (UserAnswer ua : history) {
-            if(ua.getQuestion().getQuiz().getWordList().getUser().getUserId().equals(user.getUserId())) {
-                boolean correct = isCorrect(ua);
-                // Simple Score: +1 correct, -2 wrong.
-                ua.getQuestion().getOptions().forEach(opt ->
-                        scores.computeIfPresent(opt.getWordWithMeaningId(), (k, v) -> v + (correct ? 1 : -2))
-                );
-            }
-        }
-        list.sort(Comparator.comparingInt(w -> scores.getOrDefault(w.getWordWithMeaningId(), 0)));
-    }
-
-    private boolean isCorrect(UserAnswer ua) {
-        return ua.isCorrect();
+        answerRepository.saveAll(answers);
     }
 
     private QuizDto mapToDto(Quiz quiz, List<Question> questions) {
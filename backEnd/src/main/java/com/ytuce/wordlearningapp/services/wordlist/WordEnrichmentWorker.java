@@ -0,0 +1,88 @@
+package com.ytuce.wordlearningapp.services.wordlist;
+
+import com.ytuce.wordlearningapp.configuration.AsyncConfig;
+import com.ytuce.wordlearningapp.models.WordWithMeaning;
+import com.ytuce.wordlearningapp.repositories.WordListRepository;
+import com.ytuce.wordlearningapp.services.enrichment.EnrichmentJobService;
+import com.ytuce.wordlearningapp.services.meaning_extractor.BulkMeaningExtractor;
+import com.ytuce.wordlearningapp.services.meaning_extractor.ExtractionListener;
+import com.ytuce.wordlearningapp.services.meaning_extractor.ExtractionStage;
+import com.ytuce.wordlearningapp.services.meaning_extractor.MeaningExtractorService;
+import com.ytuce.wordlearningapp.services.meaning_extractor.requests.ExtractMeaningRequest;
+import com.ytuce.wordlearningapp.services.wordlist.requests.AddWordRequest;
+import com.ytuce.wordlearningapp.services.wordlist.requests.AddWordsRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Runs the meaning extraction pipeline for an added word off the servlet thread,
+ * links the result to the word list and reports progress to the job.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WordEnrichmentWorker {
+
+    private final MeaningExtractorService meaningExtractorService;
+    private final BulkMeaningExtractor bulkMeaningExtractor;
+    private final WordListRepository wordListRepository;
+    private final EnrichmentJobService enrichmentJobService;
+
+    @Async(AsyncConfig.IO_EXECUTOR)
+    public void enrich(String jobId, long wordListId, AddWordRequest req) {
+        MDC.put("jobId", jobId);
+        try {
+            WordWithMeaning wordToAdd = meaningExtractorService.extractMeaning(new ExtractMeaningRequest(req), (stage, wordWithMeaning) -> {
+                // Link to the list before reporting SAVED so a client that sees it can already fetch the list
+                if (stage == ExtractionStage.SAVED) {
+                    wordListRepository.addWordIfAbsent(wordListId, wordWithMeaning.getWordWithMeaningId());
+                }
+                enrichmentJobService.recordStage(jobId, stage, wordWithMeaning);
+            });
+
+            if (wordToAdd == null) {
+                log.warn("Job {}: no meaning could be extracted for word list {}", jobId, wordListId);
+                enrichmentJobService.fail(jobId, "No meaning could be extracted");
+            }
+        } catch (RuntimeException e) {
+            log.warn("Job {} failed: {}", jobId, e.getMessage());
+            enrichmentJobService.fail(jobId, e.getMessage());
+        } finally {
+            MDC.remove("jobId");
+        }
+    }
+
+    @Async(AsyncConfig.IO_EXECUTOR)
+    public void enrichAll(String jobId, long wordListId, AddWordsRequest req) {
+        MDC.put("jobId", jobId);
+        try {
+            ExtractionListener listener = (stage, wordWithMeaning) -> enrichmentJobService.recordStage(jobId, stage, wordWithMeaning);
+
+            List<ExtractMeaningRequest> requests = req.getWords().stream().map(ExtractMeaningRequest::new).toList();
+            BulkMeaningExtractor.Result result = bulkMeaningExtractor.extractAll(requests, listener);
+
+            if (result.words().isEmpty()) {
+                log.warn("Job {}: no meaning could be extracted for word list {}", jobId, wordListId);
+                enrichmentJobService.fail(jobId, result.failedWords().isEmpty()
+                        ? "No meaning could be extracted"
+                        : "Could not save: " + String.join(", ", result.failedWords()));
+                return;
+            }
+
+            wordListRepository.addWordsIfAbsent(wordListId, result.words().stream().map(WordWithMeaning::getWordWithMeaningId).toList());
+            enrichmentJobService.recordSaved(jobId, result.words(), result.failedWords());
+
+            meaningExtractorService.expandSynonyms(result.analyses(), listener);
+        } catch (RuntimeException e) {
+            log.warn("Job {} failed: {}", jobId, e.getMessage());
+            enrichmentJobService.fail(jobId, e.getMessage());
+        } finally {
+            MDC.remove("jobId");
+        }
+    }
+}
@@ -1,19 +1,20 @@
 package com.ytuce.wordlearningapp.services.wordlist;
 
 import com.ytuce.wordlearningapp.models.User;
-import com.ytuce.wordlearningapp.models.WordWithMeaning;
 import com.ytuce.wordlearningapp.repositories.UserRepository;
+import com.ytuce.wordlearningapp.services.enrichment.EnrichmentJobService;
 import com.ytuce.wordlearningapp.services.meaning_extractor.MeaningExtractorService;
-import com.ytuce.wordlearningapp.services.meaning_extractor.requests.ExtractMeaningRequest;
 import com.ytuce.wordlearningapp.services.wordlist.requests.AddWordRequest;
+import com.ytuce.wordlearningapp.services.wordlist.requests.AddWordsRequest;
 import com.ytuce.wordlearningapp.models.WordList;
 import com.ytuce.wordlearningapp.repositories.WordListRepository;
 import com.ytuce.wordlearningapp.services.wordlist.requests.CreateWordListRequest;
+import com.ytuce.wordlearningapp.services.wordlist.responses.AddWordResponse;
 import com.ytuce.wordlearningapp.services.wordlist.responses.WordListDto;
 import com.ytuce.wordlearningapp.services.wordlist.responses.WordWithMeaningDto;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -23,32 +24,64 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class WordListService {
     private final WordListRepository wordListRepository;
-    private final MeaningExtractorService meaningExtractorService;
     private final UserRepository userRepository;
+    private final WordEnrichmentWorker wordEnrichmentWorker;
+    private final EnrichmentJobService enrichmentJobService;
+    private final MeaningExtractorService meaningExtractorService;
 
-    @Transactional
-    @Async
-    public void addWord(long wordListId, AddWordRequest req, String userEmail) {
+    @Value("${wordlist.bulk.max-words:200}")
+    private int maxBulkWords;
 
+    // Validates the request and hands the LLM pipeline to the I/O executor; the returned job id identifies that work
+    public AddWordResponse addWord(long wordListId, AddWordRequest req, String userEmail) {
         if(!isAddWordRequestValid(req))
-            return;
+            throw new RuntimeException("Invalid add word request");
+
+        checkListOwner(wordListId, userEmail);
+        meaningExtractorService.checkAvailable();
 
-        var extractMeaningRequest = new ExtractMeaningRequest(req);
+        String jobId = enrichmentJobService.create(userEmail, wordListId);
+        try {
+            wordEnrichmentWorker.enrich(jobId, wordListId, req);
+        } catch (RuntimeException e) {
+            enrichmentJobService.fail(jobId, e.getMessage());
+            throw e;
+        }
+        return new AddWordResponse(jobId);
+    }
 
-        WordWithMeaning wordToAdd = meaningExtractorService.extractMeaning(extractMeaningRequest);
+    // Same as addWord for a whole batch, processed as one job by the bulk pipeline
+    public AddWordResponse addWords(long wordListId, AddWordsRequest req, String userEmail) {
+        if (req.getWords() == null || req.getWords().isEmpty() || req.getWords().size() > maxBulkWords)
+            throw new RuntimeException("Invalid add words request: between 1 and " + maxBulkWords + " words are allowed");
 
-        WordList wordList = wordListRepository.findById(wordListId).orElseThrow();
+        if (!req.getWords().stream().allMatch(this::isAddWordRequestValid))
+            throw new RuntimeException("Invalid add word request");
 
-        if(wordList.getWordWithMeaningList().contains(wordToAdd))
-        {
-            return;
+        checkListOwner(wordListId, userEmail);
+        meaningExtractorService.checkAvailable();
+
+        String jobId = enrichmentJobService.create(userEmail, wordListId);
+        try {
+            wordEnrichmentWorker.enrichAll(jobId, wordListId, req);
+        } catch (RuntimeException e) {
+            enrichmentJobService.fail(jobId, e.getMessage());
+            throw e;
         }
+        return new AddWordResponse(jobId);
+    }
 
-        wordList.getWordWithMeaningList().add(wordToAdd);
+    private void checkListOwner(long wordListId, String userEmail) {
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new RuntimeException("User not found"));
 
-        User user = userRepository.findByEmail(userEmail).orElseThrow();
+        WordList wordList = wordListRepository.findById(wordListId)
+                .orElseThrow(() -> new RuntimeException("Word list not found"));
 
-        wordList.setUser(user);
+        // Yetki kontrolü
+        if (!wordList.getUser().getUserId().equals(user.getUserId())) {
+            throw new RuntimeException("Unauthorized: Cannot modify another user's list");
+        }
     }
 
     @Transactional
@@ -133,7 +166,11 @@ public class WordListService {
     }
 
     private boolean isAddWordRequestValid(AddWordRequest req) {
-        return true;
+        return req != null
+                && req.getSentence() != null
+                && req.getWordLength() > 0
+                && req.getWordStartIndex() >= 0
+                && req.getWordStartIndex() + req.getWordLength() <= req.getSentence().length();
     }
 
     private boolean isCreateWordListRequestValid(CreateWordListRequest req) {
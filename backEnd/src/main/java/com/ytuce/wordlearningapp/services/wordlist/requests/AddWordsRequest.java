@@ -0,0 +1,10 @@
+package com.ytuce.wordlearningapp.services.wordlist.requests;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class AddWordsRequest {
+    private List<AddWordRequest> words;
+}
@@ -0,0 +1,10 @@
+package com.ytuce.wordlearningapp.services.wordlist.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class AddWordResponse {
+    private String jobId;
+}
@@ -0,0 +1,92 @@
+package com.ytuce.wordlearningapp;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * DataSource wrapper that counts what is sent to the database through it, whether from Hibernate,
+ * Spring Data or a JdbcTemplate: every execute call is one statement, a JDBC batch counts once.
+ * Only the thread that last called reset is counted, so background work on other threads does not
+ * blur the numbers.
+ */
+public class StatementCounter extends DelegatingDataSource {
+
+	// Hibernate fetching the next block of pooled ids; when that happens depends on earlier inserts
+	public static final Predicate<String> SEQUENCE_CALLS =
+			sql -> sql.trim().toLowerCase(Locale.ROOT).startsWith("select nextval(");
+
+	private final Predicate<String> ignored;
+	private final AtomicLong statements = new AtomicLong();
+	private final AtomicLong batchedRows = new AtomicLong();
+	private volatile Thread counted = Thread.currentThread();
+
+	public StatementCounter(DataSource target) {
+		this(target, sql -> false);
+	}
+
+	// Statements whose SQL matches ignored are not counted
+	public StatementCounter(DataSource target, Predicate<String> ignored) {
+		super(target);
+		this.ignored = ignored;
+	}
+
+	public long statements() {
+		return statements.get();
+	}
+
+	// Rows added to JDBC batches; with reWriteBatchedInserts they go out in multi-row INSERTs
+	public long batchedRows() {
+		return batchedRows.get();
+	}
+
+	public void reset() {
+		counted = Thread.currentThread();
+		statements.set(0);
+		batchedRows.set(0);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return (Connection) counting(super.getConnection(), Connection.class, null);
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return (Connection) counting(super.getConnection(username, password), Connection.class, null);
+	}
+
+	// Statements created by a counted connection are counted as well; unwrap still reaches the driver's objects.
+	// sql is what a prepared statement was created with, null for a plain one.
+	private Object counting(Object target, Class<?> type, String sql) {
+		return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+			String name = method.getName();
+			boolean executes = name.startsWith("execute");
+			if ((executes || name.equals("addBatch")) && Thread.currentThread() == counted) {
+				String executed = args != null && args.length > 0 && args[0] instanceof String text ? text : sql;
+				if (executed == null || !ignored.test(executed)) {
+					(executes ? statements : batchedRows).incrementAndGet();
+				}
+			}
+
+			Object result;
+			try {
+				result = method.invoke(target, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+			if (result instanceof Statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+				return counting(result, method.getReturnType(), name.startsWith("prepare") ? (String) args[0] : null);
+			}
+			return result;
+		});
+	}
+}
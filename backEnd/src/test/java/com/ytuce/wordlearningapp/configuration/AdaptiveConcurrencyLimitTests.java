@@ -0,0 +1,86 @@
+package com.ytuce.wordlearningapp.configuration;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimitTests {
+
+	private static final Duration THRESHOLD = Duration.ofMillis(100);
+	private static final long FAST = Duration.ofMillis(10).toNanos();
+	private static final long SLOW = Duration.ofSeconds(1).toNanos();
+
+	@Test
+	void startsAtTheMaximum() {
+		assertEquals(8, new AdaptiveConcurrencyLimit(1, 8, THRESHOLD, 0.5).getLimit());
+	}
+
+	@Test
+	void slowOrFailedCallsDecreaseMultiplicativelyDownToTheMinimum() throws InterruptedException {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 8, THRESHOLD, 0.5);
+
+		call(limit, SLOW, false);
+		assertEquals(4, limit.getLimit());
+		call(limit, FAST, true);
+		assertEquals(2, limit.getLimit());
+		call(limit, SLOW, true);
+		assertEquals(2, limit.getLimit());
+	}
+
+	@Test
+	void fastCallsIncreaseByOneOverLimitUpToTheMaximum() throws InterruptedException {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 4, THRESHOLD, 0.5);
+		call(limit, SLOW, false);
+		assertEquals(2, limit.getLimit());
+
+		// 2 -> 2.5 -> 2.9 -> 3.24: about one step per round of limit calls
+		call(limit, FAST, false);
+		call(limit, FAST, false);
+		assertEquals(2, limit.getLimit());
+		call(limit, FAST, false);
+		assertEquals(3, limit.getLimit());
+
+		for (int i = 0; i < 100; i++) call(limit, FAST, false);
+		assertEquals(4, limit.getLimit());
+	}
+
+	@Test
+	void shedsCallersThatWaitLongerThanTheTimeout() throws InterruptedException {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, THRESHOLD, 0.5);
+
+		assertTrue(limit.tryAcquire(Duration.ZERO));
+		long start = System.nanoTime();
+		assertFalse(limit.tryAcquire(Duration.ofMillis(50)));
+		assertTrue(System.nanoTime() - start >= Duration.ofMillis(50).toNanos());
+		assertEquals(1, limit.getInFlight());
+
+		limit.release(FAST, false);
+		assertTrue(limit.tryAcquire(Duration.ZERO));
+	}
+
+	@Test
+	void waitingCallerGetsTheReleasedSlot() throws InterruptedException {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, THRESHOLD, 0.5);
+		assertTrue(limit.tryAcquire(Duration.ZERO));
+
+		Thread releaser = Thread.ofVirtual().start(() -> {
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			limit.release(FAST, false);
+		});
+		assertTrue(limit.tryAcquire(Duration.ofSeconds(5)));
+		releaser.join();
+	}
+
+	private static void call(AdaptiveConcurrencyLimit limit, long latencyNanos, boolean failed) throws InterruptedException {
+		assertTrue(limit.tryAcquire(Duration.ZERO));
+		limit.release(latencyNanos, failed);
+	}
+}
@@ -0,0 +1,109 @@
+package com.ytuce.wordlearningapp.configuration;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTests {
+
+	private static final Duration LONG = Duration.ofHours(1);
+
+	@Test
+	void staysClosedUntilMinimumCallsAreRecorded() {
+		CircuitBreaker breaker = new CircuitBreaker(10, 4, 0.5, LONG, 2);
+
+		for (int i = 0; i < 3; i++) breaker.onFailure();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+		breaker.onFailure();
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+	}
+
+	@Test
+	void opensAtFailureRateOverTheWindow() {
+		CircuitBreaker breaker = new CircuitBreaker(4, 4, 0.5, LONG, 2);
+
+		breaker.onSuccess();
+		breaker.onSuccess();
+		breaker.onSuccess();
+		breaker.onFailure();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+		// The oldest success slides out: 2 failures in the last 4 calls
+		breaker.onFailure();
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+	}
+
+	@Test
+	void rejectsCallsWhileOpen() {
+		CircuitBreaker breaker = opened(LONG, 2);
+
+		assertFalse(breaker.tryAcquirePermission());
+		assertFalse(breaker.isAcceptingCalls());
+		assertTrue(breaker.remainingOpenTime().compareTo(Duration.ZERO) > 0);
+	}
+
+	@Test
+	void halfOpenLetsTrialCallsThroughAndClosesWhenAllSucceed() {
+		CircuitBreaker breaker = opened(Duration.ZERO, 2);
+
+		assertTrue(breaker.tryAcquirePermission());
+		assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+		assertTrue(breaker.tryAcquirePermission());
+		assertFalse(breaker.tryAcquirePermission());
+
+		breaker.onSuccess();
+		assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+		breaker.onSuccess();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		assertTrue(breaker.tryAcquirePermission());
+	}
+
+	@Test
+	void failedTrialCallOpensAgain() {
+		CircuitBreaker breaker = new CircuitBreaker(4, 2, 0.5, Duration.ZERO, 2);
+		breaker.onFailure();
+		breaker.onFailure();
+
+		assertTrue(breaker.tryAcquirePermission());
+		breaker.onFailure();
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+	}
+
+	@Test
+	void ignoredTrialCallFreesItsSlot() {
+		CircuitBreaker breaker = opened(Duration.ZERO, 1);
+
+		assertTrue(breaker.tryAcquirePermission());
+		assertFalse(breaker.tryAcquirePermission());
+		breaker.onIgnored();
+		assertTrue(breaker.tryAcquirePermission());
+	}
+
+	@Test
+	void closingStartsAFreshWindow() {
+		CircuitBreaker breaker = new CircuitBreaker(4, 2, 0.5, Duration.ZERO, 1);
+		breaker.onFailure();
+		breaker.onFailure();
+		breaker.tryAcquirePermission();
+		breaker.onSuccess();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+		// The failures from before the breaker opened no longer count
+		breaker.onFailure();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		assertEquals(3, breaker.getTransitions());
+	}
+
+	private static CircuitBreaker opened(Duration openDuration, int halfOpenCalls) {
+		CircuitBreaker breaker = new CircuitBreaker(4, 2, 0.5, openDuration, halfOpenCalls);
+		breaker.onFailure();
+		breaker.onFailure();
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		return breaker;
+	}
+}
@@ -0,0 +1,89 @@
+package com.ytuce.wordlearningapp.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WordMasteryTests {
+
+	private static final Instant NOW = Instant.parse("2024-03-01T10:00:00Z");
+	private static final double DELTA = 1e-9;
+
+	// A word seen for the first time, as WordMasteryRepository creates it
+	private static WordMastery fresh() {
+		return WordMastery.builder().easeFactor(2.5).dueAt(NOW).build();
+	}
+
+	@Test
+	void correctAnswersScheduleOneThenSixThenIntervalTimesEaseFactor() {
+		WordMastery mastery = fresh();
+
+		mastery.recordAnswer(true, NOW);
+		assertEquals(1, mastery.getIntervalDays());
+		assertEquals(2.6, mastery.getEaseFactor(), DELTA);
+
+		mastery.recordAnswer(true, NOW);
+		assertEquals(6, mastery.getIntervalDays());
+		assertEquals(2.7, mastery.getEaseFactor(), DELTA);
+
+		// The interval grows by the ease factor from before this answer: round(6 * 2.7)
+		mastery.recordAnswer(true, NOW);
+		assertEquals(16, mastery.getIntervalDays());
+		assertEquals(2.8, mastery.getEaseFactor(), DELTA);
+
+		// round(16 * 2.8) = round(44.8)
+		mastery.recordAnswer(true, NOW);
+		assertEquals(45, mastery.getIntervalDays());
+		assertEquals(4, mastery.getRepetitions());
+		assertEquals(NOW.plus(Duration.ofDays(45)), mastery.getDueAt());
+		assertEquals(4, mastery.getCorrectCount());
+		assertEquals(4, mastery.getScore());
+	}
+
+	@Test
+	void wrongAnswerStartsOverAtOneDayAndLowersEaseFactor() {
+		WordMastery mastery = fresh();
+		for (int i = 0; i < 3; i++) mastery.recordAnswer(true, NOW);
+		assertEquals(16, mastery.getIntervalDays());
+
+		Instant later = NOW.plus(Duration.ofDays(16));
+		mastery.recordAnswer(false, later);
+		assertEquals(0, mastery.getRepetitions());
+		assertEquals(1, mastery.getIntervalDays());
+		assertEquals(later.plus(Duration.ofDays(1)), mastery.getDueAt());
+		assertEquals(later, mastery.getLastAnsweredAt());
+		// Quality 2: 0.1 - 3 * (0.08 + 3 * 0.02) = -0.32
+		assertEquals(2.48, mastery.getEaseFactor(), DELTA);
+		assertEquals(1, mastery.getWrongCount());
+		assertEquals(1, mastery.getScore());
+
+		// The progression starts over from the first step
+		mastery.recordAnswer(true, later);
+		assertEquals(1, mastery.getIntervalDays());
+		mastery.recordAnswer(true, later);
+		assertEquals(6, mastery.getIntervalDays());
+	}
+
+	@Test
+	void easeFactorNeverDropsBelowFloor() {
+		WordMastery mastery = fresh();
+
+		// 2.5 -> 2.18 -> 1.86 -> 1.54 -> 1.22, held at 1.3
+		for (int i = 0; i < 3; i++) mastery.recordAnswer(false, NOW);
+		assertEquals(1.54, mastery.getEaseFactor(), DELTA);
+		mastery.recordAnswer(false, NOW);
+		assertEquals(1.3, mastery.getEaseFactor(), DELTA);
+		mastery.recordAnswer(false, NOW);
+		assertEquals(1.3, mastery.getEaseFactor(), DELTA);
+
+		// From the floor, intervals still grow: 1, 6, then round(6 * 1.5)
+		mastery.recordAnswer(true, NOW);
+		assertEquals(1.4, mastery.getEaseFactor(), DELTA);
+		mastery.recordAnswer(true, NOW);
+		mastery.recordAnswer(true, NOW);
+		assertEquals(9, mastery.getIntervalDays());
+	}
+}
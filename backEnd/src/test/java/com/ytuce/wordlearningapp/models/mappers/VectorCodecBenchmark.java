@@ -0,0 +1,112 @@
+package com.ytuce.wordlearningapp.models.mappers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pgvector.PGvector;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the old text path (float[] -> decimal string -> boxed List<Double>) with the
+ * pgvector binary encoding used by VectorType, for 384-dimensional embeddings.
+ * Run with ./gradlew benchmark; excluded from the regular test task.
+ */
+@Tag("benchmark")
+class VectorCodecBenchmark {
+
+	private static final int DIMENSIONS = 384;
+	private static final int VECTORS = 1_000;
+	private static final int WARMUP_ROUNDS = 20;
+	private static final int MEASURED_ROUNDS = 50;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void textVersusBinary() throws Exception {
+		float[][] vectors = randomVectors();
+
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			textRoundTrip(vectors);
+			binaryRoundTrip(vectors);
+		}
+
+		long textNanos = 0;
+		long binaryNanos = 0;
+		for (int i = 0; i < MEASURED_ROUNDS; i++) {
+			long start = System.nanoTime();
+			textRoundTrip(vectors);
+			textNanos += System.nanoTime() - start;
+
+			start = System.nanoTime();
+			binaryRoundTrip(vectors);
+			binaryNanos += System.nanoTime() - start;
+		}
+
+		int textBytes = toText(vectors[0]).getBytes(StandardCharsets.UTF_8).length;
+		int binaryBytes = new PGvector(vectors[0]).lengthInBytes();
+		long ops = (long) VECTORS * MEASURED_ROUNDS;
+
+		System.out.printf("text:   %,d ns/vector, %,d bytes on the wire%n", textNanos / ops, textBytes);
+		System.out.printf("binary: %,d ns/vector, %,d bytes on the wire%n", binaryNanos / ops, binaryBytes);
+
+		assertTrue(binaryBytes < textBytes);
+	}
+
+	@Test
+	void binaryRoundTripIsLossless() throws Exception {
+		float[] vector = randomVectors()[0];
+		PGvector encoded = new PGvector(vector);
+		byte[] bytes = new byte[encoded.lengthInBytes()];
+		encoded.toBytes(bytes, 0);
+
+		PGvector decoded = new PGvector();
+		decoded.setByteValue(bytes, 0);
+		assertArrayEquals(vector, decoded.toArray());
+	}
+
+	// What the previous mapping did: format as text for ?::vector, read back through Jackson into List<Double>
+	private long textRoundTrip(float[][] vectors) throws Exception {
+		long checksum = 0;
+		for (float[] vector : vectors) {
+			List<?> parsed = objectMapper.readValue(toText(vector), List.class);
+			checksum += parsed.size();
+		}
+		return checksum;
+	}
+
+	private long binaryRoundTrip(float[][] vectors) throws Exception {
+		long checksum = 0;
+		for (float[] vector : vectors) {
+			PGvector encoded = new PGvector(vector);
+			byte[] bytes = new byte[encoded.lengthInBytes()];
+			encoded.toBytes(bytes, 0);
+
+			PGvector decoded = new PGvector();
+			decoded.setByteValue(bytes, 0);
+			checksum += decoded.toArray().length;
+		}
+		return checksum;
+	}
+
+	private static String toText(float[] vector) {
+		List<Double> boxed = new ArrayList<>(vector.length);
+		for (float v : vector) boxed.add((double) v);
+		return boxed.toString();
+	}
+
+	private static float[][] randomVectors() {
+		Random random = new Random(42);
+		float[][] vectors = new float[VECTORS][DIMENSIONS];
+		for (float[] vector : vectors) {
+			for (int i = 0; i < DIMENSIONS; i++) vector[i] = (float) random.nextGaussian();
+		}
+		return vectors;
+	}
+}
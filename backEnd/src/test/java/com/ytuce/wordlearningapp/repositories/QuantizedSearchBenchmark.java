@@ -0,0 +1,332 @@
+package com.ytuce.wordlearningapp.repositories;
+
+import com.pgvector.PGvector;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Recall@5 versus bytes per vector for quantized first passes (int8, sign bits) followed by exact
+ * cosine re-ranking, compared with exact float32 search. The in-memory run needs nothing; the
+ * Postgres run compares the "binary" search mode with exact and HNSW search and skips without a database:
+ * ./gradlew benchmark -Dbenchmark.jdbc-url=jdbc:postgresql://localhost:5432/wordlearn
+ */
+@Tag("benchmark")
+class QuantizedSearchBenchmark {
+
+	private static final int DIMENSIONS = 384;
+	private static final int CLUSTERS = 500;
+	private static final int QUERIES = 200;
+	private static final int K = 5;
+	private static final int[] RERANK_FACTORS = {1, 2, 4, 10, 20};
+	private static final String TABLE = "bench_quantized_embedding";
+
+	private final String url = System.getProperty("benchmark.jdbc-url", "jdbc:postgresql://localhost:5432/wordlearn");
+	private final String user = System.getProperty("benchmark.jdbc-user", "postgres");
+	private final String password = System.getProperty("benchmark.jdbc-password", "postgres");
+
+	@Test
+	void inMemoryRecallVersusFootprint() {
+		int size = Integer.getInteger("benchmark.quantized-size", 20_000);
+		Random random = new Random(7);
+		float[][] centroids = new float[CLUSTERS][];
+		for (int i = 0; i < CLUSTERS; i++) centroids[i] = gaussian(random, 1.0);
+
+		float[][] data = new float[size][];
+		for (int i = 0; i < size; i++) data[i] = normalize(sample(random, centroids));
+		float[][] queries = new float[QUERIES][];
+		for (int i = 0; i < QUERIES; i++) queries[i] = normalize(sample(random, centroids));
+
+		byte[][] int8 = new byte[size][];
+		float[] int8Scales = new float[size];
+		long[][] bits = new long[size][];
+		for (int i = 0; i < size; i++) {
+			int8Scales[i] = quantizeInt8(data[i], int8[i] = new byte[DIMENSIONS]);
+			bits[i] = signBits(data[i]);
+		}
+
+		List<Set<Integer>> truth = new ArrayList<>(QUERIES);
+		long start = System.nanoTime();
+		for (float[] query : queries) {
+			truth.add(topK(size, K, node -> -dot(query, data[node])));
+		}
+		long exactNanos = System.nanoTime() - start;
+
+		System.out.printf("%n=== %,d vectors, %d dimensions, recall@%d ===%n", size, DIMENSIONS, K);
+		System.out.printf("float32 exact      %5d B/vector  %7.1f MB  recall 1.000  %7.1f us/query%n",
+				4 * DIMENSIONS, mb(size, 4 * DIMENSIONS), exactNanos / 1e3 / QUERIES);
+
+		for (int factor : RERANK_FACTORS) {
+			double int8Recall = 0;
+			double bitRecall = 0;
+			long int8Nanos = 0;
+			long bitNanos = 0;
+			for (int q = 0; q < QUERIES; q++) {
+				float[] query = queries[q];
+
+				start = System.nanoTime();
+				byte[] queryInt8 = new byte[DIMENSIONS];
+				quantizeInt8(query, queryInt8);
+				Set<Integer> pool = topK(size, K * factor, node -> -dotInt8(queryInt8, int8[node]) * int8Scales[node]);
+				Set<Integer> found = rerank(query, data, pool);
+				int8Nanos += System.nanoTime() - start;
+				int8Recall += overlap(found, truth.get(q));
+
+				start = System.nanoTime();
+				long[] queryBits = signBits(query);
+				pool = topK(size, K * factor, node -> hamming(queryBits, bits[node]));
+				found = rerank(query, data, pool);
+				bitNanos += System.nanoTime() - start;
+				bitRecall += overlap(found, truth.get(q));
+			}
+			System.out.printf("int8   + rerank x%-2d %4d B/vector  %7.1f MB  recall %.3f  %7.1f us/query%n",
+					factor, DIMENSIONS + 4, mb(size, DIMENSIONS + 4), int8Recall / QUERIES, int8Nanos / 1e3 / QUERIES);
+			System.out.printf("binary + rerank x%-2d %4d B/vector  %7.1f MB  recall %.3f  %7.1f us/query%n",
+					factor, DIMENSIONS / 8, mb(size, DIMENSIONS / 8), bitRecall / QUERIES, bitNanos / 1e3 / QUERIES);
+		}
+		System.out.println("(re-ranking reads the float32 vector of each pooled candidate only)");
+	}
+
+	@Test
+	void postgresBinaryMode() throws Exception {
+		int size = Integer.getInteger("benchmark.quantized-size", 100_000);
+		try (Connection connection = connect()) {
+			assumeTrue(connection != null, "No PostgreSQL at " + url);
+			PGvector.addVectorType(connection);
+			Random random = new Random(7);
+			float[][] centroids = new float[CLUSTERS][];
+			for (int i = 0; i < CLUSTERS; i++) centroids[i] = gaussian(random, 1.0);
+
+			try (Statement st = connection.createStatement()) {
+				st.execute("DROP TABLE IF EXISTS " + TABLE);
+				st.execute("CREATE UNLOGGED TABLE " + TABLE + " (id bigint PRIMARY KEY, embedding vector(" + DIMENSIONS + "))");
+			}
+			connection.setAutoCommit(false);
+			try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + TABLE + " VALUES (?, ?)")) {
+				for (int i = 0; i < size; i++) {
+					insert.setLong(1, i);
+					insert.setObject(2, new PGvector(sample(random, centroids)));
+					insert.addBatch();
+					if ((i + 1) % 1_000 == 0) insert.executeBatch();
+				}
+				insert.executeBatch();
+			}
+			connection.commit();
+			connection.setAutoCommit(true);
+
+			List<float[]> queries = new ArrayList<>(QUERIES);
+			for (int i = 0; i < QUERIES; i++) queries.add(sample(random, centroids));
+
+			try (Statement st = connection.createStatement()) {
+				st.execute("SET maintenance_work_mem = '1GB'");
+				st.execute("CREATE INDEX " + TABLE + "_vec_idx ON " + TABLE
+						+ " USING hnsw (embedding vector_cosine_ops)");
+				st.execute("CREATE INDEX " + TABLE + "_bits_idx ON " + TABLE
+						+ " USING hnsw ((binary_quantize(embedding)::bit(" + DIMENSIONS + ")) bit_hamming_ops)");
+				st.execute("ANALYZE " + TABLE);
+			}
+
+			System.out.printf("%n=== Postgres, %,d vectors ===%n", size);
+			System.out.printf("heap %,d kB, vector index %,d kB, bit index %,d kB%n",
+					relationKb(connection, TABLE), relationKb(connection, TABLE + "_vec_idx"),
+					relationKb(connection, TABLE + "_bits_idx"));
+
+			String exactSql = "SELECT id FROM " + TABLE + " ORDER BY embedding <=> ? LIMIT " + K;
+			List<Set<Long>> truth = new ArrayList<>();
+			double exactMs = run(connection, "SET enable_indexscan = off", exactSql, queries, truth, null);
+			System.out.printf("exact                 recall 1.000  %7.2f ms/query%n", exactMs);
+
+			double hnswMs = run(connection, "SET enable_indexscan = on", exactSql, queries, null, truth);
+			System.out.printf("hnsw (float32)        recall %.3f  %7.2f ms/query%n", lastRecall, hnswMs);
+
+			for (int factor : RERANK_FACTORS) {
+				String binarySql = """
+						SELECT id FROM (
+						    SELECT id, embedding FROM %1$s
+						    ORDER BY binary_quantize(embedding)::bit(%2$d) <~> binary_quantize(?::vector)
+						    LIMIT %3$d
+						) pool
+						ORDER BY embedding <=> ?
+						LIMIT %4$d
+						""".formatted(TABLE, DIMENSIONS, K * factor, K);
+				double ms = run(connection, "SET hnsw.ef_search = " + Math.max(40, K * factor), binarySql, queries, null, truth);
+				System.out.printf("binary + rerank x%-2d   recall %.3f  %7.2f ms/query%n", factor, lastRecall, ms);
+			}
+
+			try (Statement st = connection.createStatement()) {
+				st.execute("DROP TABLE " + TABLE);
+			}
+		}
+	}
+
+	private double lastRecall;
+
+	// Runs all queries once to warm up, then measured; fills truthOut or scores against truth
+	private double run(Connection connection, String setting, String sql, List<float[]> queries,
+					   List<Set<Long>> truthOut, List<Set<Long>> truth) throws SQLException {
+		try (Statement st = connection.createStatement()) {
+			st.execute(setting);
+		}
+		long nanos = 0;
+		double recall = 0;
+		try (PreparedStatement query = connection.prepareStatement(sql)) {
+			for (int pass = 0; pass < 2; pass++) {
+				for (int i = 0; i < queries.size(); i++) {
+					PGvector vector = new PGvector(queries.get(i));
+					for (int p = 1; p <= query.getParameterMetaData().getParameterCount(); p++) {
+						query.setObject(p, vector);
+					}
+					long start = System.nanoTime();
+					Set<Long> ids = new HashSet<>();
+					try (ResultSet rs = query.executeQuery()) {
+						while (rs.next()) ids.add(rs.getLong(1));
+					}
+					if (pass == 0) continue;
+
+					nanos += System.nanoTime() - start;
+					if (truthOut != null) {
+						truthOut.add(ids);
+					} else {
+						ids.retainAll(truth.get(i));
+						recall += (double) ids.size() / K;
+					}
+				}
+			}
+		}
+		lastRecall = truthOut != null ? 1.0 : recall / queries.size();
+		return nanos / 1e6 / queries.size();
+	}
+
+	private Connection connect() {
+		try {
+			return DriverManager.getConnection(url, user, password);
+		} catch (SQLException e) {
+			return null;
+		}
+	}
+
+	private static long relationKb(Connection connection, String relation) throws SQLException {
+		try (PreparedStatement st = connection.prepareStatement("SELECT pg_relation_size(?::regclass) / 1024")) {
+			st.setString(1, relation);
+			try (ResultSet rs = st.executeQuery()) {
+				rs.next();
+				return rs.getLong(1);
+			}
+		}
+	}
+
+	private interface Score {
+		float of(int node);
+	}
+
+	// Indices of the k lowest scores
+	private static Set<Integer> topK(int size, int k, Score score) {
+		float[] best = new float[k];
+		int[] nodes = new int[k];
+		Arrays.fill(best, Float.MAX_VALUE);
+		for (int node = 0; node < size; node++) {
+			float s = score.of(node);
+			if (s >= best[k - 1]) continue;
+			int i = k - 1;
+			while (i > 0 && best[i - 1] > s) {
+				best[i] = best[i - 1];
+				nodes[i] = nodes[i - 1];
+				i--;
+			}
+			best[i] = s;
+			nodes[i] = node;
+		}
+		Set<Integer> result = new HashSet<>();
+		for (int i = 0; i < k && best[i] != Float.MAX_VALUE; i++) result.add(nodes[i]);
+		return result;
+	}
+
+	private static Set<Integer> rerank(float[] query, float[][] data, Set<Integer> pool) {
+		Integer[] candidates = pool.toArray(new Integer[0]);
+		return topK(candidates.length, Math.min(K, candidates.length), i -> -dot(query, data[candidates[i]]))
+				.stream()
+				.map(i -> candidates[i])
+				.collect(java.util.stream.Collectors.toSet());
+	}
+
+	private static double overlap(Set<Integer> found, Set<Integer> truth) {
+		return found.stream().filter(truth::contains).count() / (double) K;
+	}
+
+	// Symmetric per-vector scale: the largest component maps to 127
+	private static float quantizeInt8(float[] vector, byte[] out) {
+		float max = 0;
+		for (float v : vector) max = Math.max(max, Math.abs(v));
+		float scale = max == 0 ? 0 : max / 127f;
+		for (int i = 0; i < DIMENSIONS; i++) out[i] = (byte) Math.round(scale == 0 ? 0 : vector[i] / scale);
+		return scale;
+	}
+
+	private static float dotInt8(byte[] a, byte[] b) {
+		int sum = 0;
+		for (int i = 0; i < DIMENSIONS; i++) sum += a[i] * b[i];
+		return sum;
+	}
+
+	// Same convention as pgvector's binary_quantize: bit set when the component is positive
+	private static long[] signBits(float[] vector) {
+		long[] bits = new long[(DIMENSIONS + 63) / 64];
+		for (int i = 0; i < DIMENSIONS; i++) {
+			if (vector[i] > 0) bits[i >>> 6] |= 1L << i;
+		}
+		return bits;
+	}
+
+	private static float hamming(long[] a, long[] b) {
+		int distance = 0;
+		for (int i = 0; i < a.length; i++) distance += Long.bitCount(a[i] ^ b[i]);
+		return distance;
+	}
+
+	private static float dot(float[] a, float[] b) {
+		float sum = 0;
+		for (int i = 0; i < DIMENSIONS; i++) sum += a[i] * b[i];
+		return sum;
+	}
+
+	private static double mb(int size, int bytesPerVector) {
+		return (double) size * bytesPerVector / (1024 * 1024);
+	}
+
+	private static float[] normalize(float[] vector) {
+		double norm = 0;
+		for (float v : vector) norm += v * v;
+		float scale = (float) (1 / Math.sqrt(norm));
+		for (int i = 0; i < vector.length; i++) vector[i] *= scale;
+		return vector;
+	}
+
+	// Sentence embeddings cluster by topic; uniform random vectors would make every quantization look bad
+	private static float[] sample(Random random, float[][] centroids) {
+		float[] centroid = centroids[random.nextInt(centroids.length)];
+		float[] noise = gaussian(random, 0.3);
+		float[] vector = new float[DIMENSIONS];
+		for (int i = 0; i < DIMENSIONS; i++) vector[i] = centroid[i] + noise[i];
+		return vector;
+	}
+
+	private static float[] gaussian(Random random, double scale) {
+		float[] vector = new float[DIMENSIONS];
+		for (int i = 0; i < DIMENSIONS; i++) vector[i] = (float) (random.nextGaussian() * scale);
+		return vector;
+	}
+}
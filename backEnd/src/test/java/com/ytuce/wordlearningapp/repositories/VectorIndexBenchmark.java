@@ -0,0 +1,201 @@
+package com.ytuce.wordlearningapp.repositories;
+
+import com.pgvector.PGvector;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Recall@10 and latency of exact search versus HNSW and IVFFlat cosine indexes at several table sizes,
+ * on clustered 384-dimensional vectors in a scratch table. Needs a PostgreSQL with pgvector:
+ * ./gradlew benchmark -Dbenchmark.jdbc-url=jdbc:postgresql://localhost:5432/wordlearn -Dbenchmark.sizes=10000,100000,1000000
+ */
+@Tag("benchmark")
+class VectorIndexBenchmark {
+
+	private static final int DIMENSIONS = 384;
+	private static final int CLUSTERS = 1_000;
+	private static final int QUERIES = 200;
+	private static final int K = 10;
+	private static final int INSERT_BATCH = 1_000;
+	private static final String TABLE = "bench_meaning_embedding";
+
+	private static final int HNSW_M = 16;
+	private static final int HNSW_EF_CONSTRUCTION = 64;
+	private static final int[] EF_SEARCH = {10, 20, 40, 100, 200};
+	private static final int[] PROBES = {1, 5, 10, 20, 50};
+
+	private final String url = System.getProperty("benchmark.jdbc-url", "jdbc:postgresql://localhost:5432/wordlearn");
+	private final String user = System.getProperty("benchmark.jdbc-user", "postgres");
+	private final String password = System.getProperty("benchmark.jdbc-password", "postgres");
+
+	@Test
+	void recallAndLatency() throws Exception {
+		int[] sizes = Arrays.stream(System.getProperty("benchmark.sizes", "10000,100000,1000000").split(","))
+				.map(String::trim)
+				.mapToInt(Integer::parseInt)
+				.toArray();
+
+		try (Connection connection = connect()) {
+			assumeTrue(connection != null, "No PostgreSQL at " + url);
+			PGvector.addVectorType(connection);
+
+			for (int size : sizes) {
+				run(connection, size);
+			}
+		}
+	}
+
+	private void run(Connection connection, int size) throws SQLException {
+		Random random = new Random(42);
+		float[][] centroids = new float[CLUSTERS][];
+		for (int i = 0; i < CLUSTERS; i++) centroids[i] = gaussian(random, 1.0);
+
+		try (Statement st = connection.createStatement()) {
+			st.execute("DROP TABLE IF EXISTS " + TABLE);
+			st.execute("CREATE UNLOGGED TABLE " + TABLE + " (id bigint PRIMARY KEY, embedding vector(" + DIMENSIONS + "))");
+		}
+
+		long start = System.nanoTime();
+		connection.setAutoCommit(false);
+		try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + TABLE + " VALUES (?, ?)")) {
+			for (int i = 0; i < size; i++) {
+				insert.setLong(1, i);
+				insert.setObject(2, new PGvector(sample(random, centroids)));
+				insert.addBatch();
+				if ((i + 1) % INSERT_BATCH == 0) insert.executeBatch();
+			}
+			insert.executeBatch();
+		}
+		connection.commit();
+		connection.setAutoCommit(true);
+		System.out.printf("%n=== %,d meanings (loaded in %,d ms) ===%n", size, (System.nanoTime() - start) / 1_000_000);
+
+		List<float[]> queries = new ArrayList<>(QUERIES);
+		for (int i = 0; i < QUERIES; i++) queries.add(sample(random, centroids));
+
+		try (Statement st = connection.createStatement()) {
+			st.execute("ANALYZE " + TABLE);
+			st.execute("SET maintenance_work_mem = '1GB'");
+		}
+
+		List<Set<Long>> truth = new ArrayList<>(QUERIES);
+		Stats exact = measure(connection, queries, "SET enable_indexscan = off", truth, null);
+		System.out.printf("exact                      recall 1.000  avg %7.2f ms  p95 %7.2f ms%n", exact.avgMs, exact.p95Ms);
+
+		long built = buildIndex(connection, "hnsw", "m = " + HNSW_M + ", ef_construction = " + HNSW_EF_CONSTRUCTION);
+		System.out.printf("hnsw m=%d ef_construction=%d built in %,d ms%n", HNSW_M, HNSW_EF_CONSTRUCTION, built);
+		for (int efSearch : EF_SEARCH) {
+			Stats stats = measure(connection, queries, "SET hnsw.ef_search = " + Math.max(efSearch, K), null, truth);
+			System.out.printf("hnsw ef_search=%-4d        recall %.3f  avg %7.2f ms  p95 %7.2f ms%n",
+					efSearch, stats.recall, stats.avgMs, stats.p95Ms);
+		}
+
+		int lists = Math.max(10, size / 1_000);
+		built = buildIndex(connection, "ivfflat", "lists = " + lists);
+		System.out.printf("ivfflat lists=%d built in %,d ms%n", lists, built);
+		for (int probes : PROBES) {
+			Stats stats = measure(connection, queries, "SET ivfflat.probes = " + probes, null, truth);
+			System.out.printf("ivfflat probes=%-4d        recall %.3f  avg %7.2f ms  p95 %7.2f ms%n",
+					probes, stats.recall, stats.avgMs, stats.p95Ms);
+		}
+
+		try (Statement st = connection.createStatement()) {
+			st.execute("RESET enable_indexscan");
+			st.execute("DROP TABLE " + TABLE);
+		}
+	}
+
+	private long buildIndex(Connection connection, String method, String options) throws SQLException {
+		try (Statement st = connection.createStatement()) {
+			st.execute("RESET enable_indexscan");
+			st.execute("DROP INDEX IF EXISTS " + TABLE + "_idx");
+			long start = System.nanoTime();
+			st.execute("CREATE INDEX " + TABLE + "_idx ON " + TABLE + " USING " + method
+					+ " (embedding vector_cosine_ops) WITH (" + options + ")");
+			return (System.nanoTime() - start) / 1_000_000;
+		}
+	}
+
+	// Runs every query once to warm up, then once measured; fills truth when given, otherwise scores against it
+	private Stats measure(Connection connection, List<float[]> queries, String setting,
+						  List<Set<Long>> truthOut, List<Set<Long>> truth) throws SQLException {
+		try (Statement st = connection.createStatement()) {
+			st.execute(setting);
+		}
+
+		long[] latencies = new long[queries.size()];
+		double recall = 0;
+		try (PreparedStatement query = connection.prepareStatement(
+				"SELECT id FROM " + TABLE + " ORDER BY embedding <=> ? LIMIT " + K)) {
+			for (float[] vector : queries) nearest(query, vector);
+
+			for (int i = 0; i < queries.size(); i++) {
+				long start = System.nanoTime();
+				Set<Long> found = nearest(query, queries.get(i));
+				latencies[i] = System.nanoTime() - start;
+
+				if (truthOut != null) {
+					truthOut.add(found);
+				} else {
+					found.retainAll(truth.get(i));
+					recall += (double) found.size() / K;
+				}
+			}
+		}
+
+		Arrays.sort(latencies);
+		return new Stats(
+				truthOut != null ? 1.0 : recall / queries.size(),
+				Arrays.stream(latencies).average().orElse(0) / 1e6,
+				latencies[(int) (latencies.length * 0.95)] / 1e6);
+	}
+
+	private static Set<Long> nearest(PreparedStatement query, float[] vector) throws SQLException {
+		query.setObject(1, new PGvector(vector));
+		Set<Long> ids = new HashSet<>();
+		try (ResultSet rs = query.executeQuery()) {
+			while (rs.next()) ids.add(rs.getLong(1));
+		}
+		return ids;
+	}
+
+	private Connection connect() {
+		try {
+			return DriverManager.getConnection(url, user, password);
+		} catch (SQLException e) {
+			return null;
+		}
+	}
+
+	// Sentence embeddings cluster by topic; uniform random vectors would make every index look bad
+	private static float[] sample(Random random, float[][] centroids) {
+		float[] centroid = centroids[random.nextInt(centroids.length)];
+		float[] noise = gaussian(random, 0.3);
+		float[] vector = new float[DIMENSIONS];
+		for (int i = 0; i < DIMENSIONS; i++) vector[i] = centroid[i] + noise[i];
+		return vector;
+	}
+
+	private static float[] gaussian(Random random, double scale) {
+		float[] vector = new float[DIMENSIONS];
+		for (int i = 0; i < DIMENSIONS; i++) vector[i] = (float) (random.nextGaussian() * scale);
+		return vector;
+	}
+
+	private record Stats(double recall, double avgMs, double p95Ms) {}
+}
@@ -0,0 +1,194 @@
+package com.ytuce.wordlearningapp.repositories;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Cost of scoring one user's word list by replaying the whole answer history (what QuizService.sortByScore
+ * used to do, minus its per-answer lazy loads) versus reading word_mastery, plus the one-off backfill and the
+ * per-answer upsert. Scratch tables shaped like the real ones. Needs a PostgreSQL:
+ * ./gradlew benchmark -Dbenchmark.jdbc-url=jdbc:postgresql://localhost:5432/wordlearn -Dbenchmark.answers=1000000
+ */
+@Tag("benchmark")
+class WordMasteryBenchmark {
+
+	private static final int USERS = 1_000;
+	private static final int LIST_SIZE = 200;
+	private static final int WORDS = 100_000;
+	private static final int OPTIONS = 4;
+	private static final int REPLAYS = 5;
+	private static final int LOOKUPS = 500;
+
+	private final String url = System.getProperty("benchmark.jdbc-url", "jdbc:postgresql://localhost:5432/wordlearn");
+	private final String user = System.getProperty("benchmark.jdbc-user", "postgres");
+	private final String password = System.getProperty("benchmark.jdbc-password", "postgres");
+
+	@Test
+	void replayVersusMastery() throws Exception {
+		int answers = Integer.parseInt(System.getProperty("benchmark.answers", "1000000"));
+
+		try (Connection connection = connect()) {
+			assumeTrue(connection != null, "No PostgreSQL at " + url);
+			try {
+				load(connection, answers);
+				run(connection);
+			} finally {
+				try (Statement st = connection.createStatement()) {
+					st.execute("DROP TABLE IF EXISTS bench_user_answer, bench_question, bench_question_options, bench_word_mastery");
+				}
+			}
+		}
+	}
+
+	// Every answer has its own question with OPTIONS words drawn from the owner's list
+	private void load(Connection connection, int answers) throws SQLException {
+		long start = System.nanoTime();
+		try (Statement st = connection.createStatement()) {
+			st.execute("DROP TABLE IF EXISTS bench_user_answer, bench_question, bench_question_options, bench_word_mastery");
+			st.execute("CREATE UNLOGGED TABLE bench_question (question_id bigint PRIMARY KEY, user_id bigint)");
+			st.execute("CREATE UNLOGGED TABLE bench_user_answer (user_answer_id bigint PRIMARY KEY, question_id bigint, is_correct boolean)");
+			st.execute("CREATE UNLOGGED TABLE bench_question_options (question_id bigint, word_with_meaning_id bigint)");
+			st.execute("""
+					CREATE UNLOGGED TABLE bench_word_mastery (user_id bigint, word_with_meaning_id bigint,
+					    score int, correct_count int, wrong_count int, last_answered_at timestamptz)
+					""");
+
+			st.execute("INSERT INTO bench_question SELECT g, g % " + USERS + " FROM generate_series(1, " + answers + ") g");
+			st.execute("INSERT INTO bench_user_answer SELECT g, g, random() < 0.7 FROM generate_series(1, " + answers + ") g");
+			st.execute("INSERT INTO bench_question_options SELECT q.question_id, "
+					+ "(q.user_id * " + LIST_SIZE + " + (q.question_id * 31 + o * 17) % " + LIST_SIZE + ") % " + WORDS
+					+ " FROM bench_question q, generate_series(1, " + OPTIONS + ") o");
+			st.execute("CREATE INDEX ON bench_question_options (question_id)");
+			st.execute("ANALYZE bench_question; ANALYZE bench_user_answer; ANALYZE bench_question_options");
+		}
+		System.out.printf("%n=== %,d answers, %,d users (loaded in %,d ms) ===%n", answers, USERS, (System.nanoTime() - start) / 1_000_000);
+
+		start = System.nanoTime();
+		try (Statement st = connection.createStatement()) {
+			int rows = st.executeUpdate("""
+					INSERT INTO bench_word_mastery (user_id, word_with_meaning_id, score, correct_count, wrong_count)
+					SELECT q.user_id, o.word_with_meaning_id,
+					       sum(CASE WHEN ua.is_correct THEN 1 ELSE -2 END),
+					       count(*) FILTER (WHERE ua.is_correct),
+					       count(*) FILTER (WHERE NOT ua.is_correct)
+					FROM bench_user_answer ua
+					JOIN bench_question q ON q.question_id = ua.question_id
+					JOIN bench_question_options o ON o.question_id = q.question_id
+					GROUP BY q.user_id, o.word_with_meaning_id
+					""");
+			st.execute("CREATE UNIQUE INDEX ON bench_word_mastery (user_id, word_with_meaning_id)");
+			st.execute("ANALYZE bench_word_mastery");
+			System.out.printf("backfill                %,d rows in %,d ms%n", rows, (System.nanoTime() - start) / 1_000_000);
+		}
+	}
+
+	private void run(Connection connection) throws SQLException {
+		Random random = new Random(42);
+
+		long[] replay = new long[REPLAYS];
+		try (PreparedStatement query = connection.prepareStatement("""
+				SELECT q.user_id, ua.is_correct, o.word_with_meaning_id
+				FROM bench_user_answer ua
+				JOIN bench_question q ON q.question_id = ua.question_id
+				JOIN bench_question_options o ON o.question_id = q.question_id
+				""")) {
+			query.setFetchSize(10_000);
+			connection.setAutoCommit(false);
+			for (int i = 0; i < REPLAYS; i++) {
+				long userId = random.nextInt(USERS);
+				long start = System.nanoTime();
+				Map<Long, Integer> scores = new HashMap<>();
+				try (ResultSet rs = query.executeQuery()) {
+					while (rs.next()) {
+						if (rs.getLong(1) != userId) continue;
+						scores.merge(rs.getLong(3), rs.getBoolean(2) ? 1 : -2, Integer::sum);
+					}
+				}
+				replay[i] = System.nanoTime() - start;
+			}
+			connection.commit();
+			connection.setAutoCommit(true);
+		}
+		print("replay history", replay);
+
+		long[] lookups = new long[LOOKUPS];
+		try (PreparedStatement query = connection.prepareStatement(
+				"SELECT word_with_meaning_id, score FROM bench_word_mastery WHERE user_id = ? AND word_with_meaning_id = ANY(?)")) {
+			for (int i = 0; i < LOOKUPS; i++) {
+				long userId = random.nextInt(USERS);
+				query.setLong(1, userId);
+				query.setArray(2, listOf(connection, userId));
+				long start = System.nanoTime();
+				Map<Long, Integer> scores = new HashMap<>();
+				try (ResultSet rs = query.executeQuery()) {
+					while (rs.next()) scores.put(rs.getLong(1), rs.getInt(2));
+				}
+				lookups[i] = System.nanoTime() - start;
+			}
+		}
+		print("word_mastery lookup", lookups);
+
+		long[] upserts = new long[LOOKUPS];
+		try (PreparedStatement upsert = connection.prepareStatement("""
+				INSERT INTO bench_word_mastery (user_id, word_with_meaning_id, score, correct_count, wrong_count, last_answered_at)
+				SELECT ?, w, CASE WHEN ? THEN 1 ELSE -2 END, CASE WHEN ? THEN 1 ELSE 0 END, CASE WHEN ? THEN 0 ELSE 1 END, now()
+				FROM unnest(?::bigint[]) w
+				ON CONFLICT (user_id, word_with_meaning_id) DO UPDATE SET
+				    score = bench_word_mastery.score + EXCLUDED.score,
+				    correct_count = bench_word_mastery.correct_count + EXCLUDED.correct_count,
+				    wrong_count = bench_word_mastery.wrong_count + EXCLUDED.wrong_count,
+				    last_answered_at = EXCLUDED.last_answered_at
+				""")) {
+			for (int i = 0; i < LOOKUPS; i++) {
+				long userId = random.nextInt(USERS);
+				boolean correct = random.nextBoolean();
+				Long[] options = new Long[OPTIONS];
+				for (int o = 0; o < OPTIONS; o++) options[o] = (userId * LIST_SIZE + o * (LIST_SIZE / OPTIONS) + random.nextInt(LIST_SIZE / OPTIONS)) % WORDS;
+				upsert.setLong(1, userId);
+				upsert.setBoolean(2, correct);
+				upsert.setBoolean(3, correct);
+				upsert.setBoolean(4, correct);
+				upsert.setArray(5, connection.createArrayOf("bigint", options));
+				long start = System.nanoTime();
+				upsert.executeUpdate();
+				upserts[i] = System.nanoTime() - start;
+			}
+		}
+		print("record answer (upsert)", upserts);
+	}
+
+	private static Array listOf(Connection connection, long userId) throws SQLException {
+		Long[] ids = new Long[LIST_SIZE];
+		for (int i = 0; i < LIST_SIZE; i++) ids[i] = (userId * LIST_SIZE + i) % WORDS;
+		return connection.createArrayOf("bigint", ids);
+	}
+
+	private static void print(String label, long[] latencies) {
+		Arrays.sort(latencies);
+		System.out.printf("%-22s  avg %9.2f ms  p95 %9.2f ms%n", label,
+				Arrays.stream(latencies).average().orElse(0) / 1e6,
+				latencies[(int) (latencies.length * 0.95)] / 1e6);
+	}
+
+	private Connection connect() {
+		try {
+			return DriverManager.getConnection(url, user, password);
+		} catch (SQLException e) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,212 @@
+package com.ytuce.wordlearningapp.repositories;
+
+import com.ytuce.wordlearningapp.StatementCounter;
+import com.ytuce.wordlearningapp.models.*;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Statements and latency of the entity write path with and without JDBC batching: saving a quiz the way
+ * QuizService does, and persisting a chunk of new words with their meanings. Entities are mapped into a
+ * scratch schema; meaning_embedding is left out so pgvector is not needed. Needs a PostgreSQL:
+ * ./gradlew benchmark -Dbenchmark.jdbc-url=jdbc:postgresql://localhost:5432/wordlearn
+ */
+@Tag("benchmark")
+class WritePathBenchmark {
+
+	private static final String SCHEMA = "bench_write_path";
+	private static final int QUESTIONS = 20;
+	private static final int OPTIONS = 4;
+	private static final int WORDS = 25;
+	private static final int LIST_SIZE = 200;
+	private static final int WARMUP = 50;
+	private static final int ROUNDS = 300;
+
+	private final String url = System.getProperty("benchmark.jdbc-url", "jdbc:postgresql://localhost:5432/wordlearn");
+	private final String user = System.getProperty("benchmark.jdbc-user", "postgres");
+	private final String password = System.getProperty("benchmark.jdbc-password", "postgres");
+
+	private final AtomicLong writings = new AtomicLong();
+
+	@Test
+	void unbatchedVersusBatched() throws Exception {
+		try (Connection connection = connect()) {
+			assumeTrue(connection != null, "No PostgreSQL at " + url);
+			try (Statement st = connection.createStatement()) {
+				st.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+				st.execute("CREATE SCHEMA " + SCHEMA);
+			}
+			try {
+				run("unbatched", false);
+				run("batched", true);
+			} finally {
+				try (Statement st = connection.createStatement()) {
+					st.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+				}
+			}
+		}
+	}
+
+	// Unbatched is one INSERT per row, as with the IDENTITY ids before; batched is the application.yaml setup
+	private void run(String label, boolean batched) {
+		HikariConfig config = new HikariConfig();
+		config.setJdbcUrl(url);
+		config.setUsername(user);
+		config.setPassword(password);
+		config.setMaximumPoolSize(2);
+		config.addDataSourceProperty("reWriteBatchedInserts", batched);
+
+		try (HikariDataSource pool = new HikariDataSource(config)) {
+			StatementCounter counter = new StatementCounter(pool);
+			try (SessionFactory sessionFactory = sessionFactory(counter, batched)) {
+				List<Long> wordWithMeaningIds = new ArrayList<>();
+				List<Long> wordIds = new ArrayList<>();
+				long wordListId = seed(sessionFactory, wordWithMeaningIds, wordIds);
+
+				System.out.printf("%n=== %s ===%n", label);
+				measure(QUESTIONS + "-question quiz", sessionFactory, counter,
+						session -> saveQuiz(session, wordListId, wordWithMeaningIds, wordIds));
+				measure(WORDS + " new words", sessionFactory, counter, this::saveWords);
+			}
+		}
+	}
+
+	@SuppressWarnings("deprecation") // DATASOURCE is still how a plain Configuration takes a DataSource instance
+	private static SessionFactory sessionFactory(StatementCounter counter, boolean batched) {
+		Configuration configuration = new Configuration()
+				.addAnnotatedClass(User.class)
+				.addAnnotatedClass(WordList.class)
+				.addAnnotatedClass(Quiz.class)
+				.addAnnotatedClass(Question.class)
+				.addAnnotatedClass(Answer.class)
+				.addAnnotatedClass(UserAnswer.class)
+				.addAnnotatedClass(Word.class)
+				.addAnnotatedClass(Meaning.class)
+				.addAnnotatedClass(ExampleSentence.class)
+				.addAnnotatedClass(WordWithMeaning.class);
+		configuration.getProperties().put(AvailableSettings.DATASOURCE, counter);
+		configuration.setPhysicalNamingStrategy(new CamelCaseToUnderscoresNamingStrategy());
+		configuration.setProperty(AvailableSettings.DEFAULT_SCHEMA, SCHEMA);
+		configuration.setProperty(AvailableSettings.HBM2DDL_AUTO, "create");
+		if (batched) {
+			configuration.setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, "50");
+			configuration.setProperty(AvailableSettings.ORDER_INSERTS, "true");
+			configuration.setProperty(AvailableSettings.ORDER_UPDATES, "true");
+		}
+		return configuration.buildSessionFactory();
+	}
+
+	private long seed(SessionFactory sessionFactory, List<Long> wordWithMeaningIds, List<Long> wordIds) {
+		return sessionFactory.fromTransaction(session -> {
+			User owner = User.builder().email("bench@write.path").name("Bench").password("unused").build();
+			session.persist(owner);
+			List<WordWithMeaning> list = new ArrayList<>();
+			for (int i = 0; i < LIST_SIZE; i++) {
+				list.add(newWord(session));
+			}
+			WordList wordList = WordList.builder().name("bench").user(owner).wordWithMeaningList(list).build();
+			session.persist(wordList);
+			session.flush();
+			for (WordWithMeaning wordWithMeaning : list) {
+				wordWithMeaningIds.add(wordWithMeaning.getWordWithMeaningId());
+				wordIds.add(wordWithMeaning.getWord().getWordId());
+			}
+			return wordList.getWordListId();
+		});
+	}
+
+	// Same rows as QuizService.generateQuiz: the quiz, its questions with their options, one answer per question
+	private static void saveQuiz(Session session, long wordListId, List<Long> wordWithMeaningIds, List<Long> wordIds) {
+		Quiz quiz = Quiz.builder().wordList(session.getReference(WordList.class, wordListId)).build();
+		session.persist(quiz);
+		List<Answer> answers = new ArrayList<>();
+		for (int q = 0; q < QUESTIONS; q++) {
+			List<WordWithMeaning> options = new ArrayList<>();
+			for (int o = 0; o < OPTIONS; o++) {
+				options.add(session.getReference(WordWithMeaning.class, wordWithMeaningIds.get((q * OPTIONS + o) % LIST_SIZE)));
+			}
+			Question question = Question.builder()
+					.questionSentence("Which one means the same?")
+					.questionType(QuestionType.MULTIPLE_CHOICE)
+					.quiz(quiz)
+					.options(options)
+					.build();
+			session.persist(question);
+			answers.add(Answer.builder()
+					.question(question)
+					.answerWords(new ArrayList<>(List.of(session.getReference(Word.class, wordIds.get(q * OPTIONS % LIST_SIZE)))))
+					.build());
+		}
+		answers.forEach(session::persist);
+	}
+
+	private void saveWords(Session session) {
+		for (int i = 0; i < WORDS; i++) {
+			newWord(session);
+		}
+	}
+
+	private WordWithMeaning newWord(Session session) {
+		long n = writings.incrementAndGet();
+		Word word = Word.builder().writing("benchword" + n).build();
+		Meaning meaning = Meaning.builder().descriptionEn("meaning of benchword" + n).build();
+		ExampleSentence sentence = ExampleSentence.builder().sentenceEn("A sentence with benchword" + n + " in it.").build();
+		WordWithMeaning wordWithMeaning = WordWithMeaning.builder()
+				.word(word)
+				.meaning(meaning)
+				.exampleSentence(sentence)
+				.partOfSpeech("noun")
+				.build();
+		session.persist(word);
+		session.persist(meaning);
+		session.persist(sentence);
+		session.persist(wordWithMeaning);
+		return wordWithMeaning;
+	}
+
+	private static void measure(String label, SessionFactory sessionFactory, StatementCounter counter, Consumer<Session> work) {
+		for (int i = 0; i < WARMUP; i++) {
+			sessionFactory.inTransaction(work);
+		}
+		counter.reset();
+		long[] latencies = new long[ROUNDS];
+		for (int i = 0; i < ROUNDS; i++) {
+			long start = System.nanoTime();
+			sessionFactory.inTransaction(work);
+			latencies[i] = System.nanoTime() - start;
+		}
+		Arrays.sort(latencies);
+		System.out.printf("%-18s  %6.1f statements  %6.1f batched rows  avg %6.2f ms  p95 %6.2f ms%n", label,
+				counter.statements() / (double) ROUNDS,
+				counter.batchedRows() / (double) ROUNDS,
+				Arrays.stream(latencies).average().orElse(0) / 1e6,
+				latencies[(int) (latencies.length * 0.95)] / 1e6);
+	}
+
+	private Connection connect() {
+		try {
+			return DriverManager.getConnection(url, user, password);
+		} catch (SQLException e) {
+			return null;
+		}
+	}
+}
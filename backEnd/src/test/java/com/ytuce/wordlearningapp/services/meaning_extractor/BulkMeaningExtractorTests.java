@@ -0,0 +1,106 @@
+package com.ytuce.wordlearningapp.services.meaning_extractor;
+
+import com.ytuce.wordlearningapp.configuration.UpstreamUnavailableException;
+import com.ytuce.wordlearningapp.repositories.*;
+import com.ytuce.wordlearningapp.services.meaning_extractor.index.MeaningVectorIndex;
+import com.ytuce.wordlearningapp.services.meaning_extractor.requests.ExtractMeaningRequest;
+import com.ytuce.wordlearningapp.services.meaning_extractor.responses.WordAnalysisResult;
+import com.ytuce.wordlearningapp.services.quiz.DistractorPool;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BulkMeaningExtractorTests {
+
+	private static final ExtractionListener IGNORED = (stage, wordWithMeaning) -> {};
+
+	private final MeaningExtractorService meaningExtractorService = mock(MeaningExtractorService.class);
+	private final BulkMeaningExtractor extractor = new BulkMeaningExtractor(meaningExtractorService,
+			mock(MeaningRepository.class), mock(MeaningEmbeddingRepository.class), mock(MeaningVectorIndex.class),
+			mock(WordRepository.class), mock(WordWithMeaningRepository.class), mock(ExampleSentenceRepository.class),
+			mock(TransactionTemplate.class), mock(DistractorPool.class), new SimpleAsyncTaskExecutor());
+
+	BulkMeaningExtractorTests() {
+		ReflectionTestUtils.setField(extractor, "analysisParallelism", 2);
+		ReflectionTestUtils.setField(extractor, "flushSize", 25);
+		ReflectionTestUtils.setField(extractor, "flushAttempts", 3);
+	}
+
+	@Test
+	void failedAnalysesAndEmbeddingsEndUpInFailedWords() {
+		when(meaningExtractorService.analyzeWord(any())).thenAnswer(invocation -> switch (word(invocation.getArgument(0))) {
+			case "dog" -> null;
+			case "cat" -> throw new IllegalStateException("LLM returned no JSON");
+			default -> analysis(word(invocation.getArgument(0)));
+		});
+		when(meaningExtractorService.embedAsync(anyString()))
+				.thenReturn(CompletableFuture.failedFuture(new IllegalStateException("vectorize-batch failed")));
+
+		BulkMeaningExtractor.Result result = extractor.extractAll(requests("dog", "cat", "sun"), IGNORED);
+
+		assertTrue(result.words().isEmpty());
+		assertEquals(Set.of("dog", "cat", "sun"), Set.copyOf(result.failedWords()));
+	}
+
+	@Test
+	void unavailableUpstreamFailsTheExtraction() {
+		when(meaningExtractorService.analyzeWord(any())).thenAnswer(invocation -> {
+			throw new UpstreamUnavailableException("ollama is unavailable", Duration.ofSeconds(5));
+		});
+
+		assertThrows(UpstreamUnavailableException.class, () -> extractor.extractAll(requests("dog", "cat"), IGNORED));
+	}
+
+	@Test
+	void runsAtMostAnalysisParallelismAnalysesAtOnce() {
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger mostRunning = new AtomicInteger();
+		when(meaningExtractorService.analyzeWord(any())).thenAnswer(invocation -> {
+			mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			Thread.sleep(20);
+			running.decrementAndGet();
+			return null;
+		});
+
+		BulkMeaningExtractor.Result result = extractor.extractAll(
+				requests(IntStream.range(0, 12).mapToObj(i -> "word" + i).toArray(String[]::new)), IGNORED);
+
+		assertEquals(12, result.failedWords().size());
+		assertEquals(2, mostRunning.get());
+	}
+
+	private static List<ExtractMeaningRequest> requests(String... words) {
+		return Arrays.stream(words)
+				.map(word -> new ExtractMeaningRequest("The " + word + " is here.", 4, word.length()))
+				.toList();
+	}
+
+	private static String word(ExtractMeaningRequest req) {
+		return req.getSentence().substring(req.getWordStartIndex(), req.getWordStartIndex() + req.getWordLength());
+	}
+
+	private static WordAnalysisResult analysis(String word) {
+		WordAnalysisResult result = new WordAnalysisResult();
+		result.setWord(word);
+		result.setPartOfSpeech("noun");
+		result.setMeaningEN("a " + word);
+		return result;
+	}
+}
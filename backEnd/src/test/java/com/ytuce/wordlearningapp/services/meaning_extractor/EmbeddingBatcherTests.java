@@ -0,0 +1,131 @@
+package com.ytuce.wordlearningapp.services.meaning_extractor;
+
+import com.ytuce.wordlearningapp.configuration.UpstreamClient;
+import com.ytuce.wordlearningapp.services.meaning_extractor.requests.BatchVectorRequest;
+import com.ytuce.wordlearningapp.services.meaning_extractor.responses.BatchVectorResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmbeddingBatcherTests {
+
+	private final UpstreamClient pythonService = mock(UpstreamClient.class);
+	private final EmbeddingBatcher batcher = new EmbeddingBatcher(new SimpleMeterRegistry(), pythonService,
+			new SimpleAsyncTaskExecutor());
+
+	@AfterEach
+	void tearDown() {
+		batcher.shutdown();
+	}
+
+	@Test
+	void splitsBatchesAtMaxSize() {
+		List<List<String>> batches = new CopyOnWriteArrayList<>();
+		// Each text is a number and comes back as a one-element vector holding it
+		stubUpstream(texts -> {
+			batches.add(texts);
+			return texts.stream().map(text -> new float[]{Float.parseFloat(text)}).toList();
+		});
+		start(4, Duration.ofMillis(200), 8);
+
+		List<CompletableFuture<float[]>> futures = IntStream.range(0, 10)
+				.mapToObj(i -> batcher.submit(String.valueOf(i)))
+				.toList();
+
+		for (int i = 0; i < futures.size(); i++) {
+			assertArrayEquals(new float[]{i}, futures.get(i).join());
+		}
+		assertEquals(List.of(4, 4, 2), batches.stream().map(List::size).toList());
+	}
+
+	@Test
+	void capsBatchesInFlightAtMaxInFlight() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger mostRunning = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		stubUpstream(texts -> {
+			calls.incrementAndGet();
+			mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			running.decrementAndGet();
+			return texts.stream().map(text -> new float[]{1}).toList();
+		});
+		start(1, Duration.ofMillis(1), 2);
+
+		List<CompletableFuture<float[]>> futures = IntStream.range(0, 6)
+				.mapToObj(i -> batcher.submit("text " + i))
+				.toList();
+
+		// Two single-text batches are held by the upstream; the others have to wait for a slot
+		for (int i = 0; i < 100 && running.get() < 2; i++) {
+			Thread.sleep(10);
+		}
+		Thread.sleep(100);
+		assertEquals(2, calls.get());
+
+		release.countDown();
+		CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+		assertEquals(6, calls.get());
+		assertEquals(2, mostRunning.get());
+	}
+
+	@Test
+	void submitAfterShutdownFails() {
+		start(4, Duration.ofMillis(10), 8);
+		batcher.shutdown();
+
+		CompletableFuture<float[]> future = batcher.submit("too late");
+
+		assertTrue(future.isCompletedExceptionally());
+		CompletionException e = assertThrows(CompletionException.class, future::join);
+		assertInstanceOf(IllegalStateException.class, e.getCause());
+		verify(pythonService, never()).post(anyString(), any(), any());
+	}
+
+	private void start(int maxBatchSize, Duration linger, int maxInFlight) {
+		ReflectionTestUtils.setField(batcher, "enabled", true);
+		ReflectionTestUtils.setField(batcher, "maxBatchSize", maxBatchSize);
+		ReflectionTestUtils.setField(batcher, "linger", linger);
+		ReflectionTestUtils.setField(batcher, "maxInFlight", maxInFlight);
+		batcher.init();
+	}
+
+	private void stubUpstream(Function<List<String>, List<float[]>> vectorize) {
+		when(pythonService.post(eq("/vectorize-batch"), any(), eq(BatchVectorResponse.class))).thenAnswer(invocation -> {
+			BatchVectorResponse response = new BatchVectorResponse();
+			response.setVectors(vectorize.apply(invocation.<BatchVectorRequest>getArgument(1).getTexts()));
+			return response;
+		});
+	}
+}
@@ -0,0 +1,78 @@
+package com.ytuce.wordlearningapp.services.meaning_extractor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingJsonFieldParserTests {
+
+	private final Map<String, String> fields = new LinkedHashMap<>();
+	private final StreamingJsonFieldParser parser = new StreamingJsonFieldParser(fields::put);
+
+	@Test
+	void reportsFieldSplitAcrossFragmentsOnceItsValueIsComplete() {
+		parser.feed("{\"wo");
+		parser.feed("rd\": \"ba");
+		assertTrue(fields.isEmpty());
+
+		parser.feed("nk\", \"meaningEN\": \"The land");
+		assertEquals(Map.of("word", "bank"), fields);
+
+		parser.feed(" beside a river\"}");
+		parser.finish();
+		assertEquals("The land beside a river", fields.get("meaningEN"));
+		assertFalse(parser.isBroken());
+	}
+
+	@Test
+	void escapedQuoteAtFragmentBoundary() {
+		parser.feed("{\"exampleSentence\": \"He said \\");
+		parser.feed("\"hi\\");
+		parser.feed("\" and left\"}");
+		parser.finish();
+
+		assertEquals("He said \"hi\" and left", fields.get("exampleSentence"));
+		assertFalse(parser.isBroken());
+	}
+
+	@Test
+	void skipsStringsInsideNestedObjectsAndArrays() {
+		String json = """
+				{"word": "bank",
+				 "synonyms": [{"word": "shore", "exampleSentence": "We walked along the shore."}, ["edge"]],
+				 "meta": {"partOfSpeech": "verb", "inner": {"meaningEN": "wrong"}},
+				 "partOfSpeech": "noun"}
+				""";
+		// One character at a time, so every token is split somewhere
+		json.chars().forEach(c -> parser.feed(String.valueOf((char) c)));
+		parser.finish();
+
+		assertEquals(Map.of("word", "bank", "partOfSpeech", "noun"), fields);
+		assertFalse(parser.isBroken());
+	}
+
+	@Test
+	void leadingProseMarksBrokenWithoutThrowing() {
+		parser.feed("Sure! Here is the analysis: ");
+		parser.feed("{\"word\": \"bank\"}");
+		parser.finish();
+
+		assertTrue(parser.isBroken());
+		assertTrue(fields.isEmpty());
+	}
+
+	@Test
+	void codeFenceMarksBrokenWithoutThrowing() {
+		parser.feed("```json\n");
+		parser.feed("{\"word\": \"bank\"}\n```");
+		parser.finish();
+
+		assertTrue(parser.isBroken());
+		assertTrue(fields.isEmpty());
+	}
+}
@@ -0,0 +1,23 @@
+package com.ytuce.wordlearningapp.services.meaning_extractor.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class CacheKeysTests {
+
+	@Test
+	void hashIsTheFirst128BitsOfSha256InHex() {
+		assertEquals("e3b0c44298fc1c149afbf4c8996fb924", CacheKeys.hash(""));
+		assertEquals(32, CacheKeys.hash("run : to move fast on foot").length());
+	}
+
+	@Test
+	void hashesTheExactText() {
+		assertEquals(CacheKeys.hash("bank : the land alongside a river"), CacheKeys.hash("bank : the land alongside a river"));
+		// No normalization here; callers decide what counts as the same text
+		assertNotEquals(CacheKeys.hash("bank"), CacheKeys.hash("Bank"));
+		assertNotEquals(CacheKeys.hash("naïve"), CacheKeys.hash("naive"));
+	}
+}
@@ -0,0 +1,98 @@
+package com.ytuce.wordlearningapp.services.meaning_extractor.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EmbeddingCacheTests {
+
+	private static final float[] VECTOR = {0.25f, 0.5f, 0.75f};
+
+	private final EmbeddingCache cache = new EmbeddingCache(new SimpleMeterRegistry());
+
+	EmbeddingCacheTests() {
+		ReflectionTestUtils.setField(cache, "enabled", true);
+		ReflectionTestUtils.setField(cache, "maxBytes", 1L << 20);
+		cache.init();
+	}
+
+	@Test
+	void concurrentLoadsOfTheSameTextCallTheLoaderOnce() throws Exception {
+		AtomicInteger loads = new AtomicInteger();
+		CompletableFuture<float[]> upstream = new CompletableFuture<>();
+		CountDownLatch start = new CountDownLatch(1);
+
+		List<Future<CompletableFuture<float[]>>> callers = new ArrayList<>();
+		try (ExecutorService threads = Executors.newFixedThreadPool(16)) {
+			for (int i = 0; i < 16; i++) {
+				callers.add(threads.submit(() -> {
+					start.await();
+					return cache.getOrLoad("run : to move fast on foot", text -> {
+						loads.incrementAndGet();
+						return upstream;
+					});
+				}));
+			}
+			start.countDown();
+			// Every caller holds its future before the load finishes, so none of them can be a cache hit
+			List<CompletableFuture<float[]>> results = new ArrayList<>();
+			for (Future<CompletableFuture<float[]>> caller : callers) {
+				results.add(caller.get(5, TimeUnit.SECONDS));
+			}
+			upstream.complete(VECTOR);
+
+			for (CompletableFuture<float[]> result : results) {
+				assertSame(VECTOR, result.get(5, TimeUnit.SECONDS));
+			}
+		}
+		assertEquals(1, loads.get());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	void failedLoadIsNotCached() {
+		String text = "bank : the land alongside a river";
+		CompletableFuture<float[]> failed = cache.getOrLoad(text,
+				t -> CompletableFuture.failedFuture(new IllegalStateException("vectorize failed")));
+
+		CompletionException e = assertThrows(CompletionException.class, failed::join);
+		assertEquals("vectorize failed", e.getCause().getMessage());
+		assertEquals(0, cache.size());
+
+		AtomicInteger loads = new AtomicInteger();
+		assertArrayEquals(VECTOR, cache.getOrLoad(text, t -> {
+			loads.incrementAndGet();
+			return CompletableFuture.completedFuture(VECTOR);
+		}).join());
+		assertEquals(1, loads.get());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	void loaderThatThrowsIsNotCached() {
+		String text = "bank : an institution that keeps money";
+		CompletableFuture<float[]> failed = cache.getOrLoad(text, t -> {
+			throw new IllegalStateException("python-service is down");
+		});
+
+		assertThrows(CompletionException.class, failed::join);
+		assertEquals(0, cache.size());
+		assertArrayEquals(VECTOR, cache.getOrLoad(text, t -> CompletableFuture.completedFuture(VECTOR)).join());
+	}
+}
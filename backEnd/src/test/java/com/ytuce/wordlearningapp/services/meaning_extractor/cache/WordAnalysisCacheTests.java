@@ -0,0 +1,94 @@
+package com.ytuce.wordlearningapp.services.meaning_extractor.cache;
+
+import com.ytuce.wordlearningapp.repositories.WordAnalysisCacheEntryRepository;
+import com.ytuce.wordlearningapp.services.meaning_extractor.requests.ExtractMeaningRequest;
+import com.ytuce.wordlearningapp.services.meaning_extractor.responses.WordAnalysisResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class WordAnalysisCacheTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final WordAnalysisCache cache = new WordAnalysisCache(mock(WordAnalysisCacheEntryRepository.class), meterRegistry);
+
+	WordAnalysisCacheTests() {
+		ReflectionTestUtils.setField(cache, "enabled", true);
+		ReflectionTestUtils.setField(cache, "maxBytes", 1L << 20);
+		ReflectionTestUtils.setField(cache, "ttl", Duration.ofHours(1));
+		ReflectionTestUtils.setField(cache, "contextWindow", 2);
+		ReflectionTestUtils.setField(cache, "persist", false);
+		cache.init();
+	}
+
+	@Test
+	void keyIgnoresCasePunctuationAndSpacing() {
+		assertEquals(cache.keyOf(select("We sat on the bank of the river.", "bank")),
+				cache.keyOf(select("we  sat on THE Bank, of the river", "Bank")));
+	}
+
+	@Test
+	void keyStartsWithTheNormalizedTarget() {
+		assertTrue(cache.keyOf(select("She Ran home.", "Ran")).startsWith("ran:"));
+	}
+
+	@Test
+	void keyOnlyLooksAtTheContextWindow() {
+		// Two words on each side count; "We" and "river" are further away
+		assertEquals(cache.keyOf(select("We sat on the bank of the river", "bank")),
+				cache.keyOf(select("They lay on the bank of the lake", "bank")));
+		assertNotEquals(cache.keyOf(select("We sat on the bank of the river", "bank")),
+				cache.keyOf(select("We sat at the bank of the river", "bank")));
+	}
+
+	@Test
+	void sameWordInAnotherContextGetsAnotherKey() {
+		assertNotEquals(cache.keyOf(select("I deposited money at the bank today", "bank")),
+				cache.keyOf(select("We sat on the bank of the river", "bank")));
+	}
+
+	@Test
+	void missThenHit() {
+		WordAnalysisResult result = analysis("bank");
+		assertEquals(Optional.empty(), cache.get(select("We sat on the bank of the river.", "bank")));
+
+		cache.put(select("We sat on the bank of the river.", "bank"), result);
+
+		assertSame(result, cache.get(select("we sat on the Bank of the river", "Bank")).orElseThrow());
+		assertEquals(1, cache.size());
+		assertEquals(1, meterRegistry.get("meaning_extractor.analysis_cache.misses").counter().count());
+		assertEquals(1, meterRegistry.get("meaning_extractor.analysis_cache.hits").tag("tier", "memory").counter().count());
+	}
+
+	@Test
+	void expiredEntryIsAMiss() throws InterruptedException {
+		ReflectionTestUtils.setField(cache, "ttl", Duration.ofMillis(1));
+		cache.put(select("We sat on the bank of the river.", "bank"), analysis("bank"));
+		Thread.sleep(10);
+
+		assertEquals(Optional.empty(), cache.get(select("We sat on the bank of the river.", "bank")));
+		assertEquals(0, cache.size());
+		assertEquals(1, meterRegistry.get("meaning_extractor.analysis_cache.evictions").tag("cause", "expired").counter().count());
+	}
+
+	private static ExtractMeaningRequest select(String sentence, String word) {
+		return new ExtractMeaningRequest(sentence, sentence.indexOf(word), word.length());
+	}
+
+	private static WordAnalysisResult analysis(String word) {
+		WordAnalysisResult result = new WordAnalysisResult();
+		result.setWord(word);
+		result.setPartOfSpeech("noun");
+		result.setMeaningEN("the land alongside a river");
+		return result;
+	}
+}
@@ -0,0 +1,272 @@
+package com.ytuce.wordlearningapp.services.meaning_extractor.index;
+
+import com.ytuce.wordlearningapp.repositories.MeaningVectorSearch.Neighbour;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HnswGraphTests {
+
+	private static final int DIMENSIONS = 384;
+	private static final int M = 16;
+	private static final int EF_CONSTRUCTION = 100;
+	private static final int EF_SEARCH = 64;
+	private static final int K = 10;
+
+	@Test
+	void recallAgainstBruteForce() {
+		Random random = new Random(42);
+		float[][] vectors = clustered(random, 3_000, 100);
+		HnswGraph graph = build(vectors);
+
+		double recall = 0;
+		int queries = 100;
+		for (int q = 0; q < queries; q++) {
+			float[] query = near(random, vectors[random.nextInt(vectors.length)]);
+			Set<Long> expected = bruteForce(vectors, query, K);
+			long hits = graph.search(query, K, EF_SEARCH).stream().filter(n -> expected.contains(n.meaningId())).count();
+			recall += (double) hits / K;
+		}
+		recall /= queries;
+		assertTrue(recall >= 0.99, "recall@" + K + " was " + recall);
+	}
+
+	@Test
+	void resultsAreSortedByDistance() {
+		Random random = new Random(7);
+		HnswGraph graph = build(clustered(random, 500, 20));
+
+		List<Neighbour> result = graph.search(gaussian(random), K, EF_SEARCH);
+		assertEquals(K, result.size());
+		for (int i = 1; i < result.size(); i++) {
+			assertTrue(result.get(i - 1).distance() <= result.get(i).distance());
+		}
+	}
+
+	@Test
+	void snapshotRoundTripGivesTheSameResults() throws IOException {
+		Random random = new Random(1);
+		float[][] vectors = clustered(random, 1_000, 50);
+		HnswGraph graph = build(vectors);
+		byte[] snapshot = write(graph);
+
+		HnswGraph loaded = HnswGraph.readFrom(input(snapshot), DIMENSIONS, M, EF_CONSTRUCTION);
+		assertEquals(graph.size(), loaded.size());
+		assertEquals(graph.maxId(), loaded.maxId());
+		for (int q = 0; q < 50; q++) {
+			float[] query = near(random, vectors[random.nextInt(vectors.length)]);
+			assertEquals(graph.search(query, K, EF_SEARCH), loaded.search(query, K, EF_SEARCH));
+		}
+
+		// A loaded graph keeps accepting inserts
+		loaded.add(vectors.length + 1, vectors[0]);
+		assertEquals(graph.size() + 1, loaded.size());
+	}
+
+	@Test
+	void truncatedSnapshotFailsToLoad() throws IOException {
+		byte[] snapshot = write(build(clustered(new Random(2), 200, 10)));
+
+		for (int length : new int[]{0, 10, 28, snapshot.length / 2, snapshot.length - 1}) {
+			byte[] truncated = Arrays.copyOf(snapshot, length);
+			assertThrows(EOFException.class, () -> HnswGraph.readFrom(input(truncated), DIMENSIONS, M, EF_CONSTRUCTION),
+					"snapshot cut at " + length + " of " + snapshot.length + " bytes");
+		}
+	}
+
+	@Test
+	void corruptSnapshotFailsToLoad() throws IOException {
+		byte[] snapshot = write(build(clustered(new Random(2), 200, 10)));
+		// Header is magic, version, dimensions, m, then the node count
+		ByteBuffer.wrap(snapshot).putInt(16, -1);
+
+		assertThrows(IOException.class, () -> HnswGraph.readFrom(input(snapshot), DIMENSIONS, M, EF_CONSTRUCTION));
+	}
+
+	@Test
+	void snapshotWithOtherSettingsIsIgnored() throws IOException {
+		byte[] snapshot = write(build(clustered(new Random(3), 100, 10)));
+
+		assertNull(HnswGraph.readFrom(input(snapshot), DIMENSIONS, M + 1, EF_CONSTRUCTION));
+		assertNull(HnswGraph.readFrom(input(snapshot), DIMENSIONS / 2, M, EF_CONSTRUCTION));
+	}
+
+	@Test
+	void reAddingAnExistingIdKeepsTheFirstVector() {
+		HnswGraph graph = new HnswGraph(DIMENSIONS, M, EF_CONSTRUCTION);
+		float[] first = gaussian(new Random(4));
+		float[] second = gaussian(new Random(5));
+		graph.add(1, first);
+		graph.add(2, second);
+
+		graph.add(1, second);
+		assertEquals(2, graph.size());
+
+		List<Neighbour> result = graph.search(first, K, EF_SEARCH);
+		assertEquals(List.of(1L, 2L), result.stream().map(Neighbour::meaningId).toList());
+		assertEquals(0, result.get(0).distance(), 1e-5);
+	}
+
+	@Test
+	void emptyGraphFindsNothing() {
+		HnswGraph graph = new HnswGraph(DIMENSIONS, M, EF_CONSTRUCTION);
+
+		assertEquals(List.of(), graph.search(gaussian(new Random(6)), K, EF_SEARCH));
+		assertNull(graph.sampleVector(new java.util.SplittableRandom(0)));
+	}
+
+	@Test
+	void oneNodeGraphReturnsThatNode() {
+		HnswGraph graph = new HnswGraph(DIMENSIONS, M, EF_CONSTRUCTION);
+		float[] vector = gaussian(new Random(8));
+		graph.add(42, vector);
+
+		List<Neighbour> result = graph.search(vector, K, EF_SEARCH);
+		assertEquals(1, result.size());
+		assertEquals(42, result.get(0).meaningId());
+		assertEquals(0, result.get(0).distance(), 1e-5);
+	}
+
+	@Test
+	void zeroVectorsAreSkipped() {
+		HnswGraph graph = new HnswGraph(DIMENSIONS, M, EF_CONSTRUCTION);
+		graph.add(1, new float[DIMENSIONS]);
+
+		assertEquals(0, graph.size());
+		assertEquals(List.of(), graph.search(new float[DIMENSIONS], K, EF_SEARCH));
+	}
+
+	@Test
+	void concurrentInsertsAndSearches() throws InterruptedException {
+		float[][] vectors = clustered(new Random(9), 2_000, 40);
+		HnswGraph graph = new HnswGraph(DIMENSIONS, M, EF_CONSTRUCTION);
+		int writers = 4;
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		List<Throwable> errors = new ArrayList<>();
+
+		for (int w = 0; w < writers; w++) {
+			int offset = w;
+			threads.add(Thread.ofPlatform().unstarted(() -> {
+				await(start);
+				for (int i = offset; i < vectors.length; i += writers) {
+					graph.add(i, vectors[i]);
+				}
+			}));
+		}
+		threads.add(Thread.ofPlatform().unstarted(() -> {
+			await(start);
+			Random random = new Random(10);
+			for (int q = 0; q < 500; q++) {
+				List<Neighbour> result = graph.search(vectors[random.nextInt(vectors.length)], K, EF_SEARCH);
+				assertEquals(result.size(), result.stream().map(Neighbour::meaningId).distinct().count());
+			}
+		}));
+		threads.forEach(t -> t.setUncaughtExceptionHandler((thread, e) -> {
+			synchronized (errors) {
+				errors.add(e);
+			}
+		}));
+		threads.forEach(Thread::start);
+		start.countDown();
+		for (Thread t : threads) t.join();
+
+		assertEquals(List.of(), errors);
+		assertEquals(vectors.length, graph.size());
+		assertEquals(vectors.length - 1, graph.maxId());
+		// Every node is reachable: searching for its own vector finds it
+		long found = IntStream.range(0, vectors.length)
+				.filter(i -> graph.search(vectors[i], 1, EF_SEARCH).get(0).meaningId() == i)
+				.count();
+		assertTrue(found >= vectors.length * 0.99, found + " of " + vectors.length + " nodes found themselves");
+	}
+
+	private static HnswGraph build(float[][] vectors) {
+		HnswGraph graph = new HnswGraph(DIMENSIONS, M, EF_CONSTRUCTION);
+		for (int i = 0; i < vectors.length; i++) graph.add(i, vectors[i]);
+		return graph;
+	}
+
+	private static Set<Long> bruteForce(float[][] vectors, float[] query, int k) {
+		double[] distances = new double[vectors.length];
+		for (int i = 0; i < vectors.length; i++) distances[i] = cosineDistance(vectors[i], query);
+		Set<Long> ids = new HashSet<>();
+		IntStream.range(0, vectors.length).boxed()
+				.sorted(Comparator.comparingDouble(i -> distances[i]))
+				.limit(k)
+				.forEach(i -> ids.add((long) i));
+		return ids;
+	}
+
+	private static double cosineDistance(float[] a, float[] b) {
+		double dot = 0, na = 0, nb = 0;
+		for (int i = 0; i < a.length; i++) {
+			dot += a[i] * b[i];
+			na += a[i] * a[i];
+			nb += b[i] * b[i];
+		}
+		return 1 - dot / Math.sqrt(na * nb);
+	}
+
+	// Points around a few centroids, like embeddings of related meanings
+	private static float[][] clustered(Random random, int count, int clusters) {
+		float[][] centroids = new float[clusters][];
+		for (int c = 0; c < clusters; c++) centroids[c] = gaussian(random);
+		float[][] vectors = new float[count][];
+		for (int i = 0; i < count; i++) vectors[i] = near(random, centroids[random.nextInt(clusters)]);
+		return vectors;
+	}
+
+	private static float[] near(Random random, float[] center) {
+		float[] v = new float[DIMENSIONS];
+		for (int d = 0; d < DIMENSIONS; d++) v[d] = center[d] + (float) (random.nextGaussian() * 0.5);
+		return v;
+	}
+
+	private static float[] gaussian(Random random) {
+		float[] v = new float[DIMENSIONS];
+		for (int d = 0; d < DIMENSIONS; d++) v[d] = (float) random.nextGaussian();
+		return v;
+	}
+
+	private static byte[] write(HnswGraph graph) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			graph.writeTo(out);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static DataInputStream input(byte[] bytes) {
+		return new DataInputStream(new ByteArrayInputStream(bytes));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
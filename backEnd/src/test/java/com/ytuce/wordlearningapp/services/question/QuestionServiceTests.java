@@ -0,0 +1,125 @@
+package com.ytuce.wordlearningapp.services.question;
+
+import com.ytuce.wordlearningapp.models.*;
+import com.ytuce.wordlearningapp.repositories.QuestionRepository;
+import com.ytuce.wordlearningapp.repositories.UserAnswerRepository;
+import com.ytuce.wordlearningapp.repositories.UserRepository;
+import com.ytuce.wordlearningapp.repositories.WordMasteryRepository;
+import com.ytuce.wordlearningapp.repositories.WordRepository;
+import com.ytuce.wordlearningapp.services.question.requests.AnswerQuestionRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class QuestionServiceTests {
+
+	private static final long USER_ID = 7;
+	private static final String EMAIL = "answer@question.test";
+
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final QuestionRepository questionRepository = mock(QuestionRepository.class);
+	private final UserAnswerRepository userAnswerRepository = mock(UserAnswerRepository.class);
+	private final WordRepository wordRepository = mock(WordRepository.class);
+	private final WordMasteryRepository wordMasteryRepository = mock(WordMasteryRepository.class);
+	private final QuestionService questionService = new QuestionService(userRepository, questionRepository,
+			userAnswerRepository, wordRepository, wordMasteryRepository);
+
+	// The target, a synonym of it that is the correct option, and two distractors
+	private final WordWithMeaning target = wordWithMeaning(1, "big");
+	private final WordWithMeaning synonym = wordWithMeaning(2, "large");
+	private final WordWithMeaning distractor = wordWithMeaning(3, "quick");
+	private final WordWithMeaning otherDistractor = wordWithMeaning(4, "blue");
+
+	@BeforeEach
+	void setUp() {
+		when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(User.builder().userId(USER_ID).email(EMAIL).build()));
+		when(wordRepository.findAllMatchingWritings(any())).thenReturn(List.of());
+	}
+
+	@Test
+	void multipleChoiceAnswerReschedulesTheTarget() {
+		Question question = multipleChoice(target);
+		Instant due = Instant.now().minus(1, ChronoUnit.DAYS);
+		WordMastery mastery = WordMastery.builder().wordWithMeaning(target).easeFactor(2.5).dueAt(due).build();
+		when(wordMasteryRepository.findAllByUserAndWordsForUpdate(USER_ID, List.of(1L))).thenReturn(List.of(mastery));
+
+		assertTrue(questionService.answerQuestion(EMAIL, answer(question, "large")));
+
+		assertTrue(mastery.getDueAt().isAfter(Instant.now()), "due_at did not move: " + mastery.getDueAt());
+		assertEquals(1, mastery.getRepetitions());
+		// Only the target gets a mastery row and a new schedule, none of the options
+		verify(wordMasteryRepository).insertMissing(USER_ID, List.of(1L));
+		verify(wordMasteryRepository).findAllByUserAndWordsForUpdate(USER_ID, List.of(1L));
+		for (long optionId : new long[]{2, 3, 4}) {
+			verify(wordMasteryRepository, never()).insertMissing(anyLong(), argThat(ids -> ids.contains(optionId)));
+		}
+	}
+
+	@Test
+	void wrongAnswerSchedulesTheTargetForTomorrow() {
+		Question question = multipleChoice(target);
+		WordMastery mastery = WordMastery.builder().wordWithMeaning(target).easeFactor(2.5).intervalDays(6).repetitions(2).build();
+		when(wordMasteryRepository.findAllByUserAndWordsForUpdate(USER_ID, List.of(1L))).thenReturn(List.of(mastery));
+
+		Instant before = Instant.now();
+		assertFalse(questionService.answerQuestion(EMAIL, answer(question, "quick")));
+
+		assertEquals(0, mastery.getRepetitions());
+		assertEquals(1, mastery.getIntervalDays());
+		assertFalse(mastery.getDueAt().isBefore(before.plus(1, ChronoUnit.DAYS)));
+	}
+
+	@Test
+	void questionWithoutTargetReschedulesNothing() {
+		Question question = multipleChoice(null);
+
+		questionService.answerQuestion(EMAIL, answer(question, "large"));
+
+		verify(wordMasteryRepository, never()).insertMissing(anyLong(), anyCollection());
+		verify(wordMasteryRepository, never()).findAllByUserAndWordsForUpdate(anyLong(), anyCollection());
+	}
+
+	private Question multipleChoice(WordWithMeaning questionTarget) {
+		Question question = Question.builder()
+				.questionId(100L)
+				.questionType(QuestionType.MULTIPLE_CHOICE)
+				.targetWordWithMeaning(questionTarget)
+				.options(new ArrayList<>(List.of(synonym, distractor, otherDistractor)))
+				.correctAnswers(List.of(Answer.builder().answerWords(List.of(synonym.getWord())).build()))
+				.build();
+		when(questionRepository.findById(100L)).thenReturn(Optional.of(question));
+		return question;
+	}
+
+	private static AnswerQuestionRequest answer(Question question, String writing) {
+		AnswerQuestionRequest req = new AnswerQuestionRequest();
+		req.setQuestionId(question.getQuestionId());
+		req.setWriting(List.of(writing));
+		return req;
+	}
+
+	private static WordWithMeaning wordWithMeaning(long id, String writing) {
+		return WordWithMeaning.builder()
+				.wordWithMeaningId(id)
+				.word(Word.builder().wordId(id).writing(writing).build())
+				.meaning(Meaning.builder().meaningId(id).build())
+				.build();
+	}
+}
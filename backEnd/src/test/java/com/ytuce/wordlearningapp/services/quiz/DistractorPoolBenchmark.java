@@ -0,0 +1,86 @@
+package com.ytuce.wordlearningapp.services.quiz;
+
+import com.ytuce.wordlearningapp.repositories.WordWithMeaningScan.DistractorRow;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Footprint of the distractor pool snapshot, cost of merging a bulk chunk into it and of drawing
+ * distractors, on synthetic rows (about three meanings per word, a dozen parts of speech).
+ * ./gradlew benchmark -Dbenchmark.sizes=100000,1000000
+ */
+@Tag("benchmark")
+class DistractorPoolBenchmark {
+
+	private static final String[] PARTS_OF_SPEECH = {"noun", "verb", "adjective", "adverb", "pronoun", "preposition",
+			"conjunction", "interjection", "determiner", "phrasal verb", "idiom", "numeral"};
+	private static final int CHUNK = 25;
+	private static final int DISTRACTORS = 3;
+	private static final int SAMPLES = 1_000_000;
+
+	@Test
+	void footprintAndSampling() {
+		int[] sizes = Arrays.stream(System.getProperty("benchmark.sizes", "100000,1000000").split(","))
+				.map(String::trim)
+				.mapToInt(Integer::parseInt)
+				.toArray();
+		for (int size : sizes) {
+			run(size);
+		}
+	}
+
+	private void run(int size) {
+		SplittableRandom random = new SplittableRandom(42);
+		List<DistractorRow> rows = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) rows.add(row(random, i + 1, size));
+
+		long start = System.nanoTime();
+		DistractorPool.Snapshot snapshot = DistractorPool.Snapshot.EMPTY.with(rows);
+		long loadMs = (System.nanoTime() - start) / 1_000_000;
+		assertEquals(size, snapshot.size());
+		System.out.printf("%n=== %,d word meanings ===%n", size);
+		System.out.printf("load            %,d ms%n", loadMs);
+		System.out.printf("footprint       %,d KB (%d bytes per row, %,d KB per 100k)%n",
+				snapshot.bytes() / 1024, snapshot.bytes() / size, snapshot.bytes() * 100_000 / size / 1024);
+
+		int merges = 50;
+		start = System.nanoTime();
+		for (int m = 0; m < merges; m++) {
+			List<DistractorRow> chunk = new ArrayList<>(CHUNK);
+			for (int i = 0; i < CHUNK; i++) chunk.add(row(random, size + m * CHUNK + i + 1, size));
+			snapshot = snapshot.with(chunk);
+		}
+		System.out.printf("merge %d rows   %.2f ms each (copy-on-write)%n", CHUNK, (System.nanoTime() - start) / 1e6 / merges);
+
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long checksum = 0;
+		for (int i = 0; i < SAMPLES / 10; i++) checksum += sample(snapshot, random);
+		long allocated = threads.getCurrentThreadAllocatedBytes();
+		start = System.nanoTime();
+		for (int i = 0; i < SAMPLES; i++) checksum += sample(snapshot, random);
+		long elapsed = System.nanoTime() - start;
+		allocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+		System.out.printf("sample %d        %.0f ns, %d bytes allocated per call (checksum %d)%n",
+				DISTRACTORS, (double) elapsed / SAMPLES, allocated / SAMPLES, checksum);
+	}
+
+	private static long sample(DistractorPool.Snapshot snapshot, SplittableRandom random) {
+		long meaningId = random.nextLong(1, snapshot.size() / 3 + 2);
+		String partOfSpeech = PARTS_OF_SPEECH[random.nextInt(PARTS_OF_SPEECH.length)];
+		return snapshot.sample(meaningId, meaningId, partOfSpeech, DISTRACTORS, random)[0];
+	}
+
+	// Nouns and verbs dominate like in real text
+	private static DistractorRow row(SplittableRandom random, long id, int size) {
+		int pos = Math.min(random.nextInt(PARTS_OF_SPEECH.length * 2), random.nextInt(PARTS_OF_SPEECH.length * 2)) / 2;
+		return new DistractorRow(id, random.nextLong(1, size / 3 + 2), random.nextLong(1, size / 3 + 2), PARTS_OF_SPEECH[pos]);
+	}
+}
@@ -0,0 +1,102 @@
+package com.ytuce.wordlearningapp.services.quiz;
+
+import com.ytuce.wordlearningapp.repositories.WordWithMeaningScan.DistractorRow;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DistractorPoolTests {
+
+	private static final int DRAWS = 200;
+
+	@Test
+	void mergesRowsIntoTheirGroups() {
+		DistractorPool.Snapshot snapshot = DistractorPool.Snapshot.EMPTY
+				.with(List.of(new DistractorRow(3, 30, 300, "noun"), new DistractorRow(1, 10, 100, "verb")))
+				.with(List.of(new DistractorRow(2, 20, 200, "Noun ")));
+
+		assertEquals(3, snapshot.size());
+		assertArrayEquals(new long[]{2, 3}, sorted(drawAll(snapshot, "noun", 2)));
+	}
+
+	@Test
+	void readdedRowReplacesTheOldOne() {
+		DistractorPool.Snapshot snapshot = DistractorPool.Snapshot.EMPTY
+				.with(List.of(new DistractorRow(1, 10, 100, "noun"), new DistractorRow(2, 20, 200, "noun")))
+				.with(List.of(new DistractorRow(1, 11, 100, "noun")));
+
+		assertEquals(2, snapshot.size());
+		// The old meaning of row 1 is gone, so excluding meaning 11 leaves only row 2
+		SplittableRandom random = new SplittableRandom(42);
+		for (int i = 0; i < DRAWS; i++) {
+			assertArrayEquals(new long[]{2}, snapshot.sample(11, -1, "noun", 2, random));
+		}
+	}
+
+	@Test
+	void readdedRowWithAnotherPartOfSpeechLeavesItsOldGroup() {
+		DistractorPool.Snapshot snapshot = DistractorPool.Snapshot.EMPTY
+				.with(List.of(new DistractorRow(1, 10, 100, "noun"), new DistractorRow(2, 20, 200, "noun"),
+						new DistractorRow(3, 30, 300, "verb")))
+				.with(List.of(new DistractorRow(1, 10, 100, "verb")));
+
+		assertEquals(3, snapshot.size());
+		SplittableRandom random = new SplittableRandom(42);
+		for (int i = 0; i < DRAWS; i++) {
+			assertArrayEquals(new long[]{2}, snapshot.sample(-1, -1, "noun", 1, random));
+		}
+		assertArrayEquals(new long[]{1, 3}, sorted(drawAll(snapshot, "verb", 2)));
+	}
+
+	@Test
+	void sameIdTwiceInOneMergeKeepsTheLaterRow() {
+		DistractorPool.Snapshot snapshot = DistractorPool.Snapshot.EMPTY
+				.with(List.of(new DistractorRow(1, 10, 100, "noun"), new DistractorRow(1, 10, 100, "verb"),
+						new DistractorRow(2, 20, 200, "noun")));
+
+		assertEquals(2, snapshot.size());
+		SplittableRandom random = new SplittableRandom(42);
+		for (int i = 0; i < DRAWS; i++) {
+			assertArrayEquals(new long[]{2}, snapshot.sample(-1, -1, "noun", 1, random));
+		}
+	}
+
+	@Test
+	void sampledRowsShareNoWordOrMeaning() {
+		DistractorPool.Snapshot snapshot = DistractorPool.Snapshot.EMPTY
+				.with(List.of(new DistractorRow(1, 10, 100, "noun"), new DistractorRow(2, 10, 200, "noun"),
+						new DistractorRow(3, 30, 100, "noun"), new DistractorRow(4, 40, 400, "noun")));
+
+		// Row 4 has the target's meaning; row 1 shares a meaning with row 2 and a word with row 3
+		SplittableRandom random = new SplittableRandom(42);
+		for (int i = 0; i < DRAWS; i++) {
+			long[] ids = sorted(snapshot.sample(40, -1, "noun", 3, random));
+			assertTrue(Arrays.equals(ids, new long[]{1}) || Arrays.equals(ids, new long[]{2, 3}), Arrays.toString(ids));
+		}
+	}
+
+	// Distinct ids of single draws from the group; enough draws that each of its expected rows shows up,
+	// and one more id than expected is kept so a stray row fails the comparison
+	private static long[] drawAll(DistractorPool.Snapshot snapshot, String partOfSpeech, int expected) {
+		SplittableRandom random = new SplittableRandom(42);
+		return IntStream.range(0, DRAWS)
+				.mapToObj(i -> snapshot.sample(-1, -1, partOfSpeech, 1, random))
+				.flatMapToLong(Arrays::stream)
+				.distinct()
+				.limit(expected + 1)
+				.toArray();
+	}
+
+	private static long[] sorted(long[] ids) {
+		long[] copy = ids.clone();
+		Arrays.sort(copy);
+		return copy;
+	}
+}
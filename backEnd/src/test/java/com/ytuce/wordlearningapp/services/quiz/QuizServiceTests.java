@@ -0,0 +1,140 @@
+package com.ytuce.wordlearningapp.services.quiz;
+
+import com.ytuce.wordlearningapp.StatementCounter;
+import com.ytuce.wordlearningapp.models.*;
+import com.ytuce.wordlearningapp.repositories.*;
+import com.ytuce.wordlearningapp.services.quiz.requests.GenerateQuizRequest;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+class QuizServiceTests {
+
+	private static final long SEED = 42;
+
+	// Every statement on the application's DataSource is counted, including the JdbcTemplate and native ones
+	@TestConfiguration
+	static class CountingConfig {
+
+		@Bean
+		static BeanPostProcessor statementCountingPostProcessor() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					if (bean instanceof DataSource dataSource && !(bean instanceof StatementCounter)) {
+						return new StatementCounter(dataSource, StatementCounter.SEQUENCE_CALLS);
+					}
+					return bean;
+				}
+			};
+		}
+	}
+
+	@Autowired
+	private QuizService quizService;
+	@Autowired
+	private DistractorPool distractorPool;
+	@Autowired
+	private DataSource dataSource;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private WordRepository wordRepository;
+	@Autowired
+	private MeaningRepository meaningRepository;
+	@Autowired
+	private ExampleSentenceRepository exampleSentenceRepository;
+	@Autowired
+	private WordWithMeaningRepository wordWithMeaningRepository;
+	@Autowired
+	private WordListRepository wordListRepository;
+	@Autowired
+	private EntityManager entityManager;
+
+	private StatementCounter counter;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		counter = dataSource.unwrap(StatementCounter.class);
+		// Random distractors come from the pool once it is loaded and from probe queries before that
+		for (int i = 0; i < 600 && !distractorPool.isReady(); i++) {
+			Thread.sleep(50);
+		}
+		assertTrue(distractorPool.isReady(), "Distractor pool did not load");
+	}
+
+	@Test
+	void statementCountDoesNotDependOnListSize() {
+		long small = statementsToGenerateQuiz(40);
+		long large = statementsToGenerateQuiz(400);
+		assertEquals(small, large, "Quiz for a list of 40 words took " + small + " statements, for 400 words " + large);
+	}
+
+	private long statementsToGenerateQuiz(int listSize) {
+		User user = userRepository.save(User.builder()
+				.email(UUID.randomUUID() + "@quiz.test")
+				.name("Quiz Test")
+				.password("unused")
+				.build());
+		WordList list = createList(user, listSize);
+
+		// Everything quiz generation reads has to come from the database, not from this test's persistence context
+		entityManager.flush();
+		entityManager.clear();
+
+		GenerateQuizRequest req = new GenerateQuizRequest();
+		req.setWordListId(list.getWordListId());
+
+		// Same seed for both sizes, so the quizzes get the same question types in the same order
+		AopTestUtils.<QuizService>getUltimateTargetObject(quizService).setRandomSource(() -> new SplittableRandom(SEED));
+		counter.reset();
+		quizService.generateQuiz(user.getEmail(), req);
+		entityManager.flush();
+		return counter.statements();
+	}
+
+	private WordList createList(User user, int size) {
+		String prefix = "quiztest" + UUID.randomUUID().toString().substring(0, 8) + "x";
+		List<WordWithMeaning> wordMeanings = new ArrayList<>();
+		Meaning meaning = null;
+		for (int i = 0; i < size; i++) {
+			// Pairs of words share a meaning, so multiple-choice and matching questions find synonyms
+			if (i % 2 == 0) {
+				meaning = meaningRepository.save(Meaning.builder().descriptionEn("meaning " + i).build());
+			}
+			Word word = wordRepository.save(Word.builder().writing(prefix + i).build());
+			ExampleSentence sentence = exampleSentenceRepository.save(ExampleSentence.builder()
+					.sentenceEn("A sentence with " + prefix + i + " in it.")
+					.build());
+			wordMeanings.add(wordWithMeaningRepository.save(WordWithMeaning.builder()
+					.word(word)
+					.meaning(meaning)
+					.exampleSentence(sentence)
+					.partOfSpeech("noun")
+					.build()));
+		}
+		return wordListRepository.save(WordList.builder()
+				.name(prefix)
+				.user(user)
+				.wordWithMeaningList(wordMeanings)
+				.build());
+	}
+}
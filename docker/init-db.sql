@@ -3,6 +3,7 @@
 
 -- pgvector extension'ını etkinleştir
 CREATE EXTENSION IF NOT EXISTS vector;
+-- meaning_embedding üzerindeki HNSW/IVFFlat indeksi backend açılışında oluşturulur (SchemaInitializer)
 
 -- Log
 DO $$
@@ -257,6 +257,12 @@ class CrossEncodeRequest(BaseModel):
 class CrossEncodeResponse(BaseModel):
     score: float
 
+class BatchCrossEncodeRequest(BaseModel):
+    pairs: List[CrossEncodeRequest]
+
+class BatchCrossEncodeResponse(BaseModel):
+    scores: List[float]
+
 class BatchVectorRequest(BaseModel):
     texts: List[str]
 
@@ -330,6 +336,23 @@ async def cross_encode(request: CrossEncodeRequest):
         logger.error(f"Cross-encoding error: {str(e)}")
         raise HTTPException(status_code=500, detail=str(e))
 
+@app.post("/cross-encode-batch", response_model=BatchCrossEncodeResponse)
+async def cross_encode_batch(request: BatchCrossEncodeRequest):
+    try:
+        if not request.pairs:
+            raise HTTPException(status_code=400, detail="Pairs list cannot be empty")
+        if any(not p.sentence_a or not p.sentence_b for p in request.pairs):
+            raise HTTPException(status_code=400, detail="Both sentences are required for every pair")
+        model = get_cross_encoder_model()
+        scores = model.predict([(p.sentence_a, p.sentence_b) for p in request.pairs])
+        normalized_scores = 1 / (1 + np.exp(-np.asarray(scores)))
+        return BatchCrossEncodeResponse(scores=[float(s) for s in normalized_scores])
+    except HTTPException:
+        raise
+    except Exception as e:
+        logger.error(f"Batch cross-encoding error: {str(e)}")
+        raise HTTPException(status_code=500, detail=str(e))
+
 @app.post("/extract-pdf", response_model=PDFExtractResponse)
 async def extract_pdf_text(file: UploadFile = File(...)):
     try: